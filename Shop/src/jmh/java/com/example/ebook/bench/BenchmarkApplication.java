@@ -0,0 +1,74 @@
+package com.example.ebook.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/*
+ * 벤치마크 전용 스프링 컨텍스트
+ * 서비스/레포지토리/공통 컴포넌트만 올림(웹, 보안, OAuth, 시드 로더 제외)
+ * DB는 H2 인메모리, 데이터는 ServiceBenchmarks에서 DevDataLoader와 같은 모양으로 시드
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+		SecurityAutoConfiguration.class,
+		UserDetailsServiceAutoConfiguration.class
+})
+@EntityScan("com.example.ebook.entity")
+@EnableJpaRepositories("com.example.ebook.domain")
+@ComponentScan(basePackages = {
+		"com.example.ebook.service",
+		"com.example.ebook.domain",
+		"com.example.ebook.common",
+		"com.example.ebook.client"
+}, excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = {
+		"com\\.example\\.ebook\\.common\\.JwtAuthFilter",
+		"com\\.example\\.ebook\\.common\\.GlobalExceptionHandler"
+}))
+public class BenchmarkApplication {
+
+	//벤치마크 클래스마다 자기 H2 DB로 컨텍스트를 띄움(웹 없음, 로그는 WARN 이상만)
+	static ConfigurableApplicationContext start(String database, Path storageDir) {
+		return new SpringApplicationBuilder(BenchmarkApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+						"spring.jpa.hibernate.ddl-auto=create-drop",
+						"spring.jpa.show-sql=false",
+						"spring.jpa.open-in-view=false",
+						"spring.flyway.enabled=false",
+						"logging.level.root=WARN",
+						"ebook.storage.path=" + storageDir.toAbsolutePath())
+				.run();
+	}
+
+	//start에 넘긴 임시 저장 폴더 정리
+	static void deleteRecursively(Path dir) throws IOException {
+		try(Stream<Path> files = Files.walk(dir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	//SecurityConfig를 올리지 않으므로 AuthService용 인코더만 따로 등록
+	@Bean
+	public PasswordEncoder passwordEncoder() {
+		return new BCryptPasswordEncoder();
+	}
+}
@@ -0,0 +1,192 @@
+package com.example.ebook.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ebook.domain.CartItemRepository;
+import com.example.ebook.domain.OrderRepository;
+import com.example.ebook.entity.CartItem;
+import com.example.ebook.entity.Ebook;
+import com.example.ebook.entity.Order;
+import com.example.ebook.entity.OrderItem;
+import com.example.ebook.service.OrderService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * 50권 장바구니 주문 전환: 기존 방식(건별 LAZY 로딩 + cascade 건별 INSERT + 건별 DELETE) vs 배치 방식
+ * 실행: gradle jmh -PjmhInclude=CheckoutBenchmarks
+ * hibernateStatements = 1회당 Hibernate 문장 수(JdbcTemplate 배치 INSERT는 포함되지 않음)
+ * 통계는 generate_statistics 설정 대신 코드에서 켬 -> 세션마다 찍히는 통계 로그 없음
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmarks {
+
+	static final long USER_ID = 1L;
+	static final int CART_SIZE = 50;
+
+	@State(Scope.Benchmark)
+	public static class CheckoutState {
+		ConfigurableApplicationContext context;
+		Path storageDir;
+
+		OrderService orderService;
+		OrderRepository orderRepository;
+		CartItemRepository cartItemRepository;
+		JdbcTemplate jdbcTemplate;
+		TransactionTemplate tx;
+		Statistics stats;
+
+		Long cartId;
+		List<Long> ebookIds;
+
+		@Setup(Level.Trial)
+		public void start() throws IOException {
+			storageDir = Files.createTempDirectory("ebook-bench");
+			context = BenchmarkApplication.start("checkout", storageDir);
+			orderService = context.getBean(OrderService.class);
+			orderRepository = context.getBean(OrderRepository.class);
+			cartItemRepository = context.getBean(CartItemRepository.class);
+			jdbcTemplate = context.getBean(JdbcTemplate.class);
+			tx = context.getBean(TransactionTemplate.class);
+			stats = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+			stats.setStatisticsEnabled(true);
+
+			Timestamp now = Timestamp.from(Instant.now());
+			List<Object[]> rows = new ArrayList<>();
+			for(int i = 1; i <= CART_SIZE; i++) {
+				rows.add(new Object[] {"성능 테스트용 책" + i, "저자", BigDecimal.valueOf(1000 + i), "ACTIVE", "IT", now, now});
+			}
+			jdbcTemplate.batchUpdate(
+					"insert into ebook (title, author, price, status, category, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?)",
+					rows);
+			ebookIds = jdbcTemplate.queryForList("select id from ebook order by id", Long.class);
+
+			jdbcTemplate.update("insert into cart (user_id, created_at, updated_at) values (?, ?, ?)", USER_ID, now, now);
+			cartId = jdbcTemplate.queryForObject("select id from cart where user_id = ?", Long.class, USER_ID);
+
+			//반환값은 주문 헤더만: 아이템은 JDBC 배치로 저장되어 getItems()는 비어 있음(OrderService.createFromCart 참고)
+			fillCart();
+			Order created = orderService.createFromCart(USER_ID);
+			Integer items = jdbcTemplate.queryForObject("select count(*) from order_item where order_id = ?", Integer.class, created.getId());
+			BigDecimal sum = jdbcTemplate.queryForObject("select sum(sub_total) from order_item where order_id = ?", BigDecimal.class, created.getId());
+			if(!created.getItems().isEmpty() || items != CART_SIZE || sum.compareTo(created.getTotalAmount()) != 0) {
+				throw new IllegalStateException("unexpected checkout result: items=" + items + " sum=" + sum);
+			}
+			closeOrder(created.getId());
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() throws IOException {
+			context.close();
+			BenchmarkApplication.deleteRecursively(storageDir);
+		}
+
+		//장바구니 채우기/주문 정리는 JdbcTemplate으로 -> Hibernate 통계에 섞이지 않음
+		void fillCart() {
+			Timestamp now = Timestamp.from(Instant.now());
+			List<Object[]> rows = new ArrayList<>();
+			for(Long ebookId : ebookIds) {
+				rows.add(new Object[] {cartId, ebookId, 1, now});
+			}
+			jdbcTemplate.batchUpdate("insert into cart_item (cart_id, ebook_id, quantity, added_at) values (?, ?, ?, ?)", rows);
+		}
+
+		//다음 회차에서 PENDING 주문 재사용 분기를 타지 않도록 정리
+		void closeOrder(long orderId) {
+			jdbcTemplate.update("update orders set status = 'CANCELED' where id = ?", orderId);
+		}
+	}
+
+	//주문 전환은 장바구니를 비우므로 호출마다 다시 채움(측정 제외)
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Invocation {
+		public double hibernateStatements;
+
+		long invocations;
+		long statements;
+		Long orderId;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			invocations = 0;
+			statements = 0;
+		}
+
+		@Setup(Level.Invocation)
+		public void refill(CheckoutState state) {
+			state.fillCart();
+			state.stats.clear();
+		}
+
+		@TearDown(Level.Invocation)
+		public void close(CheckoutState state) {
+			statements += state.stats.getPrepareStatementCount();
+			invocations++;
+			hibernateStatements = (double) statements / invocations;
+			state.closeOrder(orderId);
+		}
+	}
+
+	//변경 전 createFromCart 흐름 재현
+	@Benchmark
+	public Long legacyCheckout(CheckoutState state, Invocation invocation) {
+		invocation.orderId = state.tx.execute(status -> {
+			//cartService.getItems: 항목 조회 + 이북 LAZY 로딩
+			state.cartItemRepository.findByCartId(state.cartId).forEach(ci -> ci.getEbook().getPrice());
+
+			List<CartItem> items = state.cartItemRepository.findByCartId(state.cartId);
+			Order order = new Order(USER_ID, "ORD-" + System.nanoTime(), "PENDING");
+			BigDecimal total = BigDecimal.ZERO;
+			for(CartItem ci : items) {
+				Ebook ebook = ci.getEbook();
+				OrderItem oi = new OrderItem(ebook, ebook.getTitle(), ebook.getPrice(), ci.getQuantity());
+				order.addItem(oi);
+				total = total.add(oi.getSubTotal());
+			}
+			order.setTotalAmount(total);
+			order.setFinalAmount(total);
+			Order saved = state.orderRepository.save(order);
+			state.cartItemRepository.deleteAllByCartId(state.cartId);
+			return saved.getId();
+		});
+		return invocation.orderId;
+	}
+
+	@Benchmark
+	public Long batchCheckout(CheckoutState state, Invocation invocation) {
+		invocation.orderId = state.orderService.createFromCart(USER_ID).getId();
+		return invocation.orderId;
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.ebook.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.entity.Ebook;
+
+/*
+ * OFFSET 페이징 vs 키셋(커서) 페이징
+ * 실행: gradle jmh -PjmhInclude=EbookPagingBenchmarks
+ * H2 인메모리라 절대값보다 첫 페이지/깊은 페이지 간 차이를 볼 것
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EbookPagingBenchmarks {
+
+	static final int ROWS = 60_000;
+	static final int SIZE = 10;
+	static final int DEEP_PAGE = 5000;
+
+	@State(Scope.Benchmark)
+	public static class PagingState {
+		ConfigurableApplicationContext context;
+		Path storageDir;
+
+		EbookRepository ebookRepository;
+		JdbcTemplate jdbcTemplate;
+		Sort sort = Sort.by(Sort.Direction.DESC, "id");
+		Long deepCursor;
+
+		@Setup(Level.Trial)
+		public void start() throws IOException {
+			storageDir = Files.createTempDirectory("ebook-bench");
+			context = BenchmarkApplication.start("paging", storageDir);
+			ebookRepository = context.getBean(EbookRepository.class);
+			jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+			Timestamp now = Timestamp.from(Instant.now());
+			List<Object[]> rows = new ArrayList<>(ROWS);
+			for(int i = 1; i <= ROWS; i++) {
+				rows.add(new Object[] {"성능 테스트용 책" + i, "저자" + (i % 100), BigDecimal.valueOf(1000),
+						"ACTIVE", i % 2 == 0 ? "IT" : "NOVEL", now, now});
+			}
+			jdbcTemplate.batchUpdate(
+					"insert into ebook (title, author, price, status, category, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?)",
+					rows);
+
+			//깊은 페이지의 커서 = 직전 페이지 마지막 id
+			deepCursor = jdbcTemplate.queryForObject(
+					"select id from ebook where status = 'ACTIVE' order by id desc limit 1 offset ?",
+					Long.class, DEEP_PAGE * SIZE - 1);
+
+			//두 방식이 같은 페이지를 돌려주는지 먼저 확인
+			List<Long> offsetIds = offsetDeep().map(Ebook::getId).getContent();
+			List<Long> keysetIds = ebookRepository.findByStatusAndIdLessThanOrderByIdDesc("ACTIVE", deepCursor, PageRequest.of(0, SIZE))
+					.stream().map(Ebook::getId).toList();
+			if(!keysetIds.equals(offsetIds)) {
+				throw new IllegalStateException("keyset page differs from offset page: " + keysetIds + " vs " + offsetIds);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() throws IOException {
+			context.close();
+			BenchmarkApplication.deleteRecursively(storageDir);
+		}
+
+		Page<Ebook> offsetDeep() {
+			return ebookRepository.findByStatus("ACTIVE", PageRequest.of(DEEP_PAGE, SIZE, sort));
+		}
+	}
+
+	@Benchmark
+	public Page<Ebook> offsetFirstPage(PagingState state) {
+		return state.ebookRepository.findByStatus("ACTIVE", PageRequest.of(0, SIZE, state.sort));
+	}
+
+	@Benchmark
+	public Page<Ebook> offsetDeepPage(PagingState state) {
+		return state.offsetDeep();
+	}
+
+	//한 건 더 읽어서 다음 페이지 유무 판단
+	@Benchmark
+	public List<Ebook> keysetFirstPage(PagingState state) {
+		return state.ebookRepository.findByStatusAndIdLessThanOrderByIdDesc("ACTIVE", Long.MAX_VALUE, PageRequest.of(0, SIZE + 1));
+	}
+
+	@Benchmark
+	public List<Ebook> keysetDeepPage(PagingState state) {
+		return state.ebookRepository.findByStatusAndIdLessThanOrderByIdDesc("ACTIVE", state.deepCursor, PageRequest.of(0, SIZE + 1));
+	}
+
+	//키셋 + 매번 COUNT(카운트 캐시가 없을 때의 비용)
+	@Benchmark
+	public List<Ebook> keysetDeepPageWithCount(PagingState state) {
+		state.jdbcTemplate.queryForObject("select count(*) from ebook where status = 'ACTIVE'", Long.class);
+		return state.ebookRepository.findByStatusAndIdLessThanOrderByIdDesc("ACTIVE", state.deepCursor, PageRequest.of(0, SIZE + 1));
+	}
+}
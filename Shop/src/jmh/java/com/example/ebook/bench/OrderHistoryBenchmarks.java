@@ -0,0 +1,120 @@
+package com.example.ebook.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.ebook.domain.OrderRepository;
+import com.example.ebook.domain.OrderRepository.OrderHistoryRow;
+import com.example.ebook.entity.Order;
+
+/*
+ * 주문 많은 사용자의 주문 목록: 주문+아이템 fetch join(기존) vs 프로젝션(서브쿼리로 첫 상품명/상품 수)
+ * 실행: gradle jmh -PjmhInclude=OrderHistoryBenchmarks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderHistoryBenchmarks {
+
+	static final long USER_ID = 1L;
+	static final int ORDERS = 3000;
+	static final int ITEMS_PER_ORDER = 3;
+	static final int PAGE_SIZE = 20;
+
+	@State(Scope.Benchmark)
+	public static class HistoryState {
+		ConfigurableApplicationContext context;
+		Path storageDir;
+
+		OrderRepository orderRepository;
+
+		@Setup(Level.Trial)
+		public void start() throws IOException {
+			storageDir = Files.createTempDirectory("ebook-bench");
+			context = BenchmarkApplication.start("history", storageDir);
+			orderRepository = context.getBean(OrderRepository.class);
+			JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+			Timestamp now = Timestamp.from(Instant.now());
+			jdbcTemplate.update("insert into ebook (title, author, price, status, category, created_at, updated_at) values ('책', '저자', 1000, 'ACTIVE', 'IT', ?, ?)",
+					now, now);
+			Long ebookId = jdbcTemplate.queryForObject("select id from ebook", Long.class);
+
+			List<Object[]> orders = new ArrayList<>(ORDERS);
+			for(int i = 1; i <= ORDERS; i++) {
+				orders.add(new Object[] {USER_ID, "ORD-" + i, "PAID", BigDecimal.valueOf(3000), BigDecimal.valueOf(3000), now});
+			}
+			jdbcTemplate.batchUpdate(
+					"insert into orders (user_id, order_number, status, total_amount, final_amount, created_at) values (?, ?, ?, ?, ?, ?)",
+					orders);
+
+			List<Object[]> items = new ArrayList<>(ORDERS * ITEMS_PER_ORDER);
+			for(Long orderId : jdbcTemplate.queryForList("select id from orders", Long.class)) {
+				for(int j = 1; j <= ITEMS_PER_ORDER; j++) {
+					items.add(new Object[] {orderId, ebookId, "책" + orderId + "-" + j, BigDecimal.valueOf(1000), 1, BigDecimal.valueOf(1000)});
+				}
+			}
+			jdbcTemplate.batchUpdate(
+					"insert into order_item (order_id, ebook_id, title_snap, price_snap, quantity, sub_total) values (?, ?, ?, ?, ?, ?)",
+					items);
+
+			//프로젝션이 fetch join과 같은 값을 주는지 먼저 확인
+			List<OrderHistoryRow> page = orderRepository.findHistoryByUserId(USER_ID, Long.MAX_VALUE, PageRequest.of(0, PAGE_SIZE));
+			OrderHistoryRow first = page.get(0);
+			if(page.size() != PAGE_SIZE || first.getItemCount() != ITEMS_PER_ORDER
+					|| !("책" + first.getId() + "-1").equals(first.getFirstTitle())
+					|| page.get(1).getId() >= first.getId()) {
+				throw new IllegalStateException("unexpected history projection: " + first.getId() + " " + first.getFirstTitle() + " " + first.getItemCount());
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() throws IOException {
+			context.close();
+			BenchmarkApplication.deleteRecursively(storageDir);
+		}
+	}
+
+	//화면에 필요한 값(첫 상품명 + 상품 수)까지 꺼내야 비교가 공정함
+	@Benchmark
+	public List<String> fetchJoinAllOrders(HistoryState state) {
+		List<Order> orders = state.orderRepository.findAllWithItemsByUserId(USER_ID);
+		return orders.stream().map(o -> o.getItems().get(0).getTitleSnap() + o.getItems().size()).toList();
+	}
+
+	@Benchmark
+	public List<OrderHistoryRow> projectionAllOrders(HistoryState state) {
+		return state.orderRepository.findHistoryByUserId(USER_ID, Long.MAX_VALUE, Pageable.unpaged());
+	}
+
+	@Benchmark
+	public List<OrderHistoryRow> projectionFirstPage(HistoryState state) {
+		return state.orderRepository.findHistoryByUserId(USER_ID, Long.MAX_VALUE, PageRequest.of(0, PAGE_SIZE + 1));
+	}
+}
@@ -0,0 +1,191 @@
+package com.example.ebook.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.example.ebook.common.JwtProvider;
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.dto.CartLine;
+import com.example.ebook.entity.Ebook;
+import com.example.ebook.entity.Order;
+import com.example.ebook.service.CartService;
+import com.example.ebook.service.DownloadTokenService;
+import com.example.ebook.service.EbookSearchIndex;
+import com.example.ebook.service.EbookService;
+import com.example.ebook.service.OrderService;
+
+import io.jsonwebtoken.Claims;
+
+/*
+ * 서비스 계층 핫패스 JMH 벤치마크
+ * 실행: gradle jmh (특정 벤치마크만: gradle jmh -PjmhInclude=listActive)
+ * 결과: build/reports/jmh/results.json
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmarks {
+
+	static final int EBOOKS = 1000;
+	static final int CART_SIZE = 20;
+	static final long READER_USER_ID = 1L;	//결제 완료 주문 + 다운로드 토큰
+	static final long CART_USER_ID = 2L;	//getItems 조회용 장바구니
+	static final long CHECKOUT_USER_ID = 3L;	//주문 전환용(매 호출 전 장바구니 다시 채움)
+
+	//컨텍스트 + 시드 데이터(벤치마크 전체에서 공유)
+	@State(Scope.Benchmark)
+	public static class AppState {
+		ConfigurableApplicationContext context;
+		Path storageDir;
+
+		EbookService ebookService;
+		CartService cartService;
+		OrderService orderService;
+		DownloadTokenService downloadTokenService;
+		JwtProvider jwtProvider;
+
+		List<Long> ebookIds;
+		String accessToken;
+		String downloadToken;
+
+		@Setup(Level.Trial)
+		public void start() throws IOException {
+			storageDir = Files.createTempDirectory("ebook-bench");
+			context = BenchmarkApplication.start("bench", storageDir);
+
+			ebookService = context.getBean(EbookService.class);
+			cartService = context.getBean(CartService.class);
+			orderService = context.getBean(OrderService.class);
+			downloadTokenService = context.getBean(DownloadTokenService.class);
+			jwtProvider = context.getBean(JwtProvider.class);
+
+			seed();
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() throws IOException {
+			context.close();
+			BenchmarkApplication.deleteRecursively(storageDir);
+		}
+
+		//DevDataLoader와 같은 모양: 이북 1000권(작가 10명, IT/NOVEL)
+		private void seed() throws IOException {
+			EbookRepository ebookRepository = context.getBean(EbookRepository.class);
+			List<Ebook> bulk = new ArrayList<>();
+			for(int i = 1; i <= EBOOKS; i++) {
+				Ebook ebook = new Ebook("성능 테스트용 책" + i, "작가 " + (i % 10), new BigDecimal(10000 + (i * 10)), "ACTIVE");
+				ebook.setCategory(i % 5 == 0 ? "IT" : "NOVEL");
+				bulk.add(ebook);
+			}
+			ebookIds = ebookRepository.saveAll(bulk).stream().map(Ebook::getId).toList();
+
+			//다운로드 대상 파일(1MB)
+			Ebook downloadable = ebookRepository.findById(ebookIds.get(0)).orElseThrow();
+			downloadable.setFilePath("bench.pdf");
+			ebookRepository.save(downloadable);
+			Files.write(storageDir.resolve("bench.pdf"), new byte[1024 * 1024]);
+
+			//결제 완료 주문 + 다운로드 토큰(DB 방식, 만료 전까지 재사용 가능)
+			Order paid = orderService.createDirectOrder(READER_USER_ID, downloadable.getId());
+			orderService.markPaid(READER_USER_ID, paid.getId());
+			downloadToken = downloadTokenService.issue(READER_USER_ID, paid.getId(), downloadable.getId()).token;
+
+			fillCart(CART_USER_ID);
+			accessToken = jwtProvider.createAccessToken(READER_USER_ID, "USER");
+
+			//검색 색인은 ApplicationReadyEvent 때 빈 상태로 만들어졌으므로 시드 후 다시 구성
+			context.getBean(EbookSearchIndex.class).rebuild();
+		}
+
+		void fillCart(long userId) {
+			for(int i = 0; i < CART_SIZE; i++) {
+				cartService.addItem(userId, ebookIds.get(i + 1), 1);
+			}
+		}
+	}
+
+	//주문 전환은 장바구니를 비우므로 호출마다 다시 채움(측정 제외)
+	@State(Scope.Thread)
+	public static class CheckoutState {
+		Long lastOrderId;
+
+		@Setup(Level.Invocation)
+		public void refill(AppState app) {
+			if(lastOrderId != null) {
+				app.orderService.cancel(CHECKOUT_USER_ID, lastOrderId);	//PENDING 재사용 분기 방지
+			}
+			app.fillCart(CHECKOUT_USER_ID);
+		}
+	}
+
+	@Benchmark
+	public Order createFromCart(AppState app, CheckoutState checkout) {
+		Order order = app.orderService.createFromCart(CHECKOUT_USER_ID);
+		checkout.lastOrderId = order.getId();
+		return order;
+	}
+
+	@Benchmark
+	public List<CartLine> getCartItems(AppState app) {
+		return app.cartService.getItems(CART_USER_ID);
+	}
+
+	//첫 페이지(카탈로그 캐시 적중)
+	@Benchmark
+	public Page<Ebook> listActiveFirstPage(AppState app) {
+		return app.ebookService.listActivePage("ALL", null, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")));
+	}
+
+	//캐시 밖 깊은 페이지
+	@Benchmark
+	public Page<Ebook> listActiveDeepPage(AppState app) {
+		return app.ebookService.listActivePage("NOVEL", null, PageRequest.of(50, 10, Sort.by(Sort.Direction.DESC, "id")));
+	}
+
+	//검색(색인 사용), 캐시 밖 페이지
+	@Benchmark
+	public Page<Ebook> listActiveSearch(AppState app) {
+		return app.ebookService.listActivePage("ALL", "테스트용 책1", PageRequest.of(5, 10, Sort.by(Sort.Direction.DESC, "id")));
+	}
+
+	@Benchmark
+	public Claims parseClaims(AppState app) {
+		return app.jwtProvider.parseClaims(app.accessToken);
+	}
+
+	//필터 경로: 검증 캐시 적중
+	@Benchmark
+	public Optional<Claims> resolveClaims(AppState app) {
+		return app.jwtProvider.resolve(app.accessToken);
+	}
+
+	@Benchmark
+	public DownloadTokenService.DownloadFile download(AppState app) {
+		return app.downloadTokenService.download(app.downloadToken);
+	}
+}
@@ -2,8 +2,10 @@ package com.example.ebook;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling	//카운트 캐시 보정 등 주기 작업
 public class EbookApplication {
 
 	public static void main(String[] args) {
@@ -1,70 +1,224 @@
 package com.example.ebook.client;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * 토스페이먼츠 API 클라이언트
+ * -HttpClient 하나를 공유(keep-alive 커넥션 풀 재사용), 연결/응답 타임아웃 설정
+ * -비동기 API(CompletableFuture): 응답을 기다리는 동안 요청 스레드를 잡고 있지 않음
+ * -동시 요청 수 상한(toss.max-concurrency): HTTP/1.1은 진행 중 요청마다 커넥션을 새로 여므로 넘치는 요청은 큐에서 대기
+ * -base-url을 바꾸면 로컬 스텁 서버로 테스트 가능
+ */
 @Component
 public class TossPaymentClient {
 
-    @Value("${toss.secret-key:test_sk_DpexMgkW36GvjwPwJNjEVGbR5ozO}")
-    private String tossSecretKey;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String authorization;
+    private final Duration readTimeout;
+
+    //진행 중 요청 수 제한(블로킹 없이 큐에 넣었다가 앞 요청이 끝나면 보냄)
+    private final Semaphore permits;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    public TossPaymentClient(ObjectMapper objectMapper,
+                             @Value("${toss.base-url:https://api.tosspayments.com}") String baseUrl,
+                             @Value("${toss.secret-key:test_sk_DpexMgkW36GvjwPwJNjEVGbR5ozO}") String tossSecretKey,
+                             @Value("${toss.connect-timeout-ms:3000}") long connectTimeoutMs,
+                             @Value("${toss.read-timeout-ms:10000}") long readTimeoutMs,
+                             @Value("${toss.max-concurrency:32}") int maxConcurrency) {
+        if(maxConcurrency < 1) {
+            throw new IllegalArgumentException("toss.max-concurrency must be >= 1");
+        }
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        //토스 인증 헤더: 시크릿키 + ":" 를 Base64
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((tossSecretKey + ":").getBytes(StandardCharsets.UTF_8));
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.permits = new Semaphore(maxConcurrency);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
 
-    public void cancelPayment(String orderNumber, String cancelReason) {
-        RestTemplate restTemplate = new RestTemplate();
-        HttpHeaders headers = new HttpHeaders();
+    //결제 승인: 성공 시 토스 응답(Payment 객체) 반환
+    public CompletableFuture<Map<String, Object>> confirmPaymentAsync(String paymentKey, String orderId, long amount) {
+        Map<String, Object> body = Map.of(
+                "paymentKey", paymentKey,
+                "orderId", orderId,
+                "amount", amount);
+        return send(post("/v1/payments/confirm", body));
+    }
 
-        //토스 인증 헤더 세팅
-        String encodedKey = Base64.getEncoder().encodeToString((tossSecretKey + ":").getBytes());
-        headers.set("Authorization", "Basic " + encodedKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    //결제 조회(paymentKey): 승인 응답을 잃었을 때 결제 상태/주문번호 확인용
+    public CompletableFuture<Map<String, Object>> getPaymentAsync(String paymentKey) {
+        return send(get("/v1/payments/" + encode(paymentKey)));
+    }
 
-        
+    //결제 취소: 승인 때 저장해둔 paymentKey가 있으면 바로 취소 요청(1회 호출)
+    //없으면(저장 전 주문) 주문번호로 paymentKey 조회 -> 취소 요청
+    public CompletableFuture<Map<String, Object>> cancelPaymentAsync(String orderNumber, String paymentKey, String cancelReason) {
+        if(paymentKey != null && !paymentKey.isBlank()) {
+            return cancelByPaymentKey(paymentKey, cancelReason);
+        }
+        return send(get("/v1/payments/orders/" + encode(orderNumber)))
+                .thenCompose(payment -> {
+                    String foundKey = (String) payment.get("paymentKey");
+                    if(foundKey == null) {
+                        throw new TossPaymentException(200, "paymentKey not found for order: " + orderNumber);
+                    }
+                    return cancelByPaymentKey(foundKey, cancelReason);
+                });
+    }
 
+    //동기 호출용: 실패하면 예외를 던짐
+    public void cancelPayment(String orderNumber, String paymentKey, String cancelReason) {
         try {
+            cancelPaymentAsync(orderNumber, paymentKey, cancelReason).join();
+        } catch(CompletionException e) {
+            throw unwrap(e);
+        }
+    }
 
-            //주문 번호로 토스 서버에 조회해서 paymentKey 알아내기`
-            String getUrl = "https://api.tosspayments.com/v1/payments/orders/" + orderNumber;
+    //CompletionException 벗기기
+    public static RuntimeException unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if(cause instanceof TossPaymentException tpe) {
+            return tpe;
+        }
+        return new TossPaymentException("토스 통신 중 에러 발생: " + cause.getMessage(), cause);
+    }
 
-            HttpEntity<Object> getRequestEntity = new HttpEntity<>(null, headers);
+    //---------내부 유틸-----------
+    //전액 취소는 결제당 한 번뿐이라 paymentKey로 멱등 키를 고정
+    //-> 타임아웃 후 재시도해도 토스가 같은 요청으로 보고 첫 결과를 돌려줌
+    private CompletableFuture<Map<String, Object>> cancelByPaymentKey(String paymentKey, String cancelReason) {
+        HttpRequest request = post("/v1/payments/" + encode(paymentKey) + "/cancel", Map.of("cancelReason", cancelReason),
+                "cancel-" + paymentKey);
+        return send(request);
+    }
 
-            ResponseEntity<Map> getResponse = restTemplate.exchange(
-                getUrl,
-                HttpMethod.GET,
-                getRequestEntity,
-                Map.class
-            );
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, Map<String, Object> body) {
+        return post(path, body, null);
+    }
 
-            //성공(200)이 아니면 예외를 던져서 DB트랜잭션도 롤백되도록 유도
-            if(!getResponse.getStatusCode().is2xxSuccessful() || getResponse.getBody() == null) {
-                throw new RuntimeException("토스 결제 취소 실패");
+    private HttpRequest post(String path, Map<String, Object> body, String idempotencyKey) {
+        try {
+            HttpRequest.Builder builder = request(path);
+            if(idempotencyKey != null) {
+                builder.header("Idempotency-Key", idempotencyKey);
             }
+            return builder
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch(JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
 
-            //응답 데이터에서 paymentKey 뺴오기
-            String paymentKey = (String) getResponse.getBody().get("paymentKey");
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(readTimeout)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json");
+    }
 
-            //알아낸 paymentKey로 취소요청 날리기
-            String cancelUrl = "https://api.tosspayments.com/v1/payments/" + paymentKey + "/cancel";
+    //2xx면 JSON 본문을 Map으로, 아니면 TossPaymentException
+    private CompletableFuture<Map<String, Object>> send(HttpRequest request) {
+        return limited(request)
+                .thenApply(response -> {
+                    if(response.statusCode() / 100 != 2) {
+                        throw new TossPaymentException(response.statusCode(), errorCode(response.body()),
+                                "토스 API 실패(" + response.statusCode() + "): " + new String(response.body(), StandardCharsets.UTF_8));
+                    }
+                    try {
+                        return response.body().length == 0 ? Map.<String, Object>of() : objectMapper.readValue(response.body(), MAP_TYPE);
+                    } catch(IOException e) {
+                        throw new TossPaymentException(response.statusCode(), "토스 응답 파싱 실패: " + e.getMessage());
+                    }
+                });
+    }
+
+    //허가가 남으면 바로, 아니면 앞 요청이 끝날 때 보냄(읽기 타임아웃은 실제 전송 시점부터)
+    private CompletableFuture<HttpResponse<byte[]>> limited(HttpRequest request) {
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            try {
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .whenComplete((response, e) -> {
+                            permits.release();
+                            drain();
+                            if(e != null) {
+                                result.completeExceptionally(e);
+                            } else {
+                                result.complete(response);
+                            }
+                        });
+            } catch(RuntimeException e) {
+                permits.release();
+                result.completeExceptionally(e);
+                drain();
+            }
+        });
+        drain();
+        return result;
+    }
 
-            Map<String, Object> tossRequest = Map.of("cancelReason", cancelReason);
+    //큐가 빌 때까지 허가를 얻은 만큼 꺼내서 보냄
+    //(허가를 얻었는데 큐가 비었으면 돌려주고 다시 확인 -> 그 사이 들어온 요청이 남지 않게)
+    private void drain() {
+        while(!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if(next == null) {
+                permits.release();
+            } else {
+                next.run();
+            }
+        }
+    }
 
-            ResponseEntity<String> cancelResponse = restTemplate.postForEntity(
-                cancelUrl,
-                new HttpEntity<>(tossRequest, headers),
-                String.class
-            );
-        } catch(Exception e) {
-            //통신 에러 발생 시 서비스 로직에 에러를 던짐
-            e.printStackTrace();
-            throw new RuntimeException("결제 취소 통신 중 에러 발생: " + e.getMessage());
+    //에러 본문 {"code": ..., "message": ...}의 code, JSON이 아니면 null
+    private String errorCode(byte[] body) {
+        try {
+            Object code = objectMapper.readValue(body, MAP_TYPE).get("code");
+            return code == null ? null : code.toString();
+        } catch(IOException | RuntimeException e) {
+            return null;
         }
     }
+
+    private static String encode(String pathSegment) {
+        return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.ebook.client;
+
+/*
+ * 토스 API 호출 실패(2xx 아님 / 통신 오류)
+ * statusCode: 토스 응답 코드, 통신 자체가 실패했으면 -1
+ * errorCode: 토스 에러 본문의 code(예: ALREADY_CANCELED_PAYMENT), 없으면 null
+ */
+public class TossPaymentException extends RuntimeException {
+
+    //이미 취소된 결제(앞선 취소 요청이 토스에서는 성공했는데 응답을 못 받은 경우 등)
+    public static final String ALREADY_CANCELED = "ALREADY_CANCELED_PAYMENT";
+    //이미 승인된 결제(앞선 승인은 토스에서 성공했는데 주문 반영 전에 응답/결과를 잃은 경우 등)
+    public static final String ALREADY_PROCESSED = "ALREADY_PROCESSED_PAYMENT";
+
+    private final int statusCode;
+    private final String errorCode;
+
+    public TossPaymentException(int statusCode, String message) {
+        this(statusCode, null, message);
+    }
+
+    public TossPaymentException(int statusCode, String errorCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+        this.errorCode = errorCode;
+    }
+
+    public TossPaymentException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+        this.errorCode = null;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public boolean isAlreadyCanceled() {
+        return ALREADY_CANCELED.equals(errorCode);
+    }
+
+    public boolean isAlreadyProcessed() {
+        return ALREADY_PROCESSED.equals(errorCode);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ebook.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.AbstractResource;
+
+import com.example.ebook.common.BlobStore.BlobInfo;
+
+/*
+ * BlobStore 객체를 스프링 Resource로 감쌈(다운로드 응답 바디)
+ * Range 응답은 스프링이 getInputStream() 후 skip(start)으로 시작 위치까지 넘기는데,
+ * 원격 저장소에서 앞부분을 받아서 버리지 않도록 첫 read 전의 skip은 위치만 기억했다가 그 위치부터 엶
+ */
+public class BlobResource extends AbstractResource {
+
+	private final BlobStore store;
+	private final String key;
+	private final BlobInfo info;
+
+	public BlobResource(BlobStore store, String key, BlobInfo info) {
+		this.store = store;
+		this.key = key;
+		this.info = info;
+	}
+
+	@Override
+	public String getDescription() {
+		return "blob [" + key + "]";
+	}
+
+	@Override
+	public String getFilename() {
+		return key.substring(key.lastIndexOf('/') + 1);
+	}
+
+	@Override
+	public long contentLength() {
+		return info.size();
+	}
+
+	@Override
+	public long lastModified() {
+		return info.lastModified();
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return new LazyRangeInputStream();
+	}
+
+	//첫 read 때 여는 스트림
+	private class LazyRangeInputStream extends InputStream {
+		private long offset;
+		private InputStream delegate;
+
+		@Override
+		public long skip(long n) throws IOException {
+			if(delegate == null) {
+				long skipped = Math.max(0, Math.min(n, info.size() - offset));
+				offset += skipped;
+				return skipped;
+			}
+			return delegate.skip(n);
+		}
+
+		@Override
+		public int read() throws IOException {
+			return delegate().read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return delegate().read(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(delegate != null) {
+				delegate.close();
+			}
+		}
+
+		private InputStream delegate() throws IOException {
+			if(delegate == null) {
+				delegate = store.open(key, offset);
+			}
+			return delegate;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.ebook.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+
+/*
+ * 이북 본문 저장소(로컬 디스크 / S3 호환)
+ * key: 저장 경로 기준 상대 경로(Ebook.filePath, 예: objects/ab/cd/{hash})
+ * 구현은 ebook.storage.type으로 선택(local 기본, s3)
+ */
+public interface BlobStore {
+
+	//크기/수정 시각(ETag, Last-Modified 계산용)
+	record BlobInfo(long size, long lastModified) {}
+
+	//로컬 파일을 key 위치로 올림(로컬은 rename, S3는 PUT), 성공하면 source는 없어짐
+	void put(String key, Path source) throws IOException;
+
+	//없으면 empty
+	Optional<BlobInfo> stat(String key) throws IOException;
+
+	//start 바이트부터 끝까지 읽는 스트림(0이면 전체)
+	InputStream open(String key, long start) throws IOException;
+
+	void delete(String key) throws IOException;
+
+	//저장소에서 직접 받을 수 있는 서명 URL(앱이 바이트를 중계하지 않음), 지원하지 않으면 empty
+	default Optional<URI> presignedGet(String key, String downloadName, Duration ttl) {
+		return Optional.empty();
+	}
+
+	//다운로드 응답용 Resource, 기본은 Range 요청 시작 위치부터 여는 BlobResource
+	default Resource asResource(String key, BlobInfo info) {
+		return new BlobResource(this, key, info);
+	}
+}
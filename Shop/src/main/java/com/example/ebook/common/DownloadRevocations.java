@@ -0,0 +1,39 @@
+package com.example.ebook.common;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/*
+ * 이 서버에서 환불 확정한 주문 목록(메모리, 서버 간 공유하지 않음)
+ * 환불 확정 커밋 직후 등록 -> 이 서버로 온 다운로드는 DB 조회 전에 거절
+ * 다른 서버로 온 다운로드는 DownloadTokenService.verifyPaidOrder의 주문 상태(PAID) 확인에서 거절
+ *  -> 서버 간 차단은 DB 확인이 담당, 이 목록은 그 앞의 지름길일 뿐
+ * 토큰 유효시간이 지나면 어차피 만료되므로 그만큼만 보관
+ */
+@Component
+public class DownloadRevocations {
+
+    private final Cache<Long, Boolean> revokedOrders;
+
+    public DownloadRevocations(@Value("${ebook.download.token-ttl-minutes:10}") long tokenTtlMinutes) {
+        this.revokedOrders = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(tokenTtlMinutes + 1))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void revokeOrder(Long orderId) {
+        if(orderId != null) {
+            revokedOrders.put(orderId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isRevoked(Long orderId) {
+        return orderId != null && revokedOrders.getIfPresent(orderId) != null;
+    }
+}
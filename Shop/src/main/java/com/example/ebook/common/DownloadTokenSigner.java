@@ -0,0 +1,97 @@
+package com.example.ebook.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ * 서명된(stateless) 다운로드 토큰 발급/검증
+ * 형식: ST-{base64url(userId.orderId.ebookId.expiresAt.nonce)}.{base64url(HMAC-SHA256)}
+ * DB에 저장하지 않고 서명만으로 위변조/만료를 메모리에서 검증
+ */
+@Component
+public class DownloadTokenSigner {
+
+    public static final String PREFIX = "ST-";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    //실서비스시 환경변수로 빼기
+    public DownloadTokenSigner(
+            @Value("${ebook.download.signing-key:very-secret-download-key-very-secret-download-key}") String signingKey) {
+        this.key = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    //토큰에 담기는 값
+    public record SignedClaims(long userId, long orderId, long ebookId, long expiresAtEpochSecond, String nonce) {}
+
+    //토큰 생성
+    public String sign(long userId, long orderId, long ebookId, long expiresAtEpochSecond) {
+        byte[] nonceBytes = new byte[12];
+        random.nextBytes(nonceBytes);
+        String nonce = ENCODER.encodeToString(nonceBytes);
+
+        String payload = userId + "." + orderId + "." + ebookId + "." + expiresAtEpochSecond + "." + nonce;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return PREFIX + ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(mac(payloadBytes));
+    }
+
+    //서명 검증 후 값 꺼내기: 형식이 틀리거나 서명이 다르면 empty(만료 여부는 호출 측에서 판단)
+    public Optional<SignedClaims> verify(String token) {
+        if(token == null || !token.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.', PREFIX.length());
+        if(dot < 0) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(PREFIX.length(), dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+
+            //타이밍 공격 방지용 상수시간 비교
+            if(!MessageDigest.isEqual(mac(payloadBytes), signature)) {
+                return Optional.empty();
+            }
+
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\.");
+            if(parts.length != 5) {
+                return Optional.empty();
+            }
+            return Optional.of(new SignedClaims(
+                    Long.parseLong(parts[0]),
+                    Long.parseLong(parts[1]),
+                    Long.parseLong(parts[2]),
+                    Long.parseLong(parts[3]),
+                    parts[4]));
+        } catch(IllegalArgumentException e) {   //base64/숫자 파싱 실패
+            return Optional.empty();
+        }
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            //Mac은 스레드 안전하지 않아서 호출마다 생성(키 스펙은 재사용)
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch(NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("failed to sign download token", e);
+        }
+    }
+}
@@ -1,18 +1,62 @@
 package com.example.ebook.common;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.StringJoiner;
 import java.util.UUID;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 @Component
 public class FileStore {
+
+    //목록/상세 화면에서 쓰는 썸네일 폭(px), 업로드할 때 미리 만들어 둠
+    public static final int[] THUMBNAIL_WIDTHS = {160, 320, 640};
+
+    //내용 주소 저장 위치(저장 경로 기준), 해시 앞 2+2글자로 2단계 하위 폴더 -> 폴더 하나에 파일이 몰리지 않음
+    public static final String CONTENT_DIR = "objects";
+    private static final String TEMP_DIR = "tmp";
+
+    //JDK ImageIO는 WebP 인코더가 없어서 JPEG로 생성
+    private static final float JPEG_QUALITY = 0.82f;
     
     @Value("${ebook.storage.path}")
     private String storagePath;
 
+    //이북 본문(objects/)과 업로드 임시 파일(tmp/) 폴더, /uploads로 공개되는 storagePath와 분리
+    //비우면 storagePath 옆의 {storagePath}-content
+    @Value("${ebook.storage.content-path:}")
+    private String contentPath;
+
+    //이북 본문(내용 주소 파일) 저장소, 썸네일은 /uploads로 바로 서빙하므로 항상 로컬
+    private final BlobStore blobStore;
+
+    public FileStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
     //파일 저장 후 저장된 파일명 반환
     public String storeFile(MultipartFile file) throws IOException {
         if(file == null || file.isEmpty()) {
@@ -36,6 +80,190 @@ public class FileStore {
         return storeFilename;
     }
 
+    //임시 파일에 저장된 업로드(아직 내용 주소 위치로 옮기기 전)
+    public record StagedContent(Path tempFile, String sha256, long size) {}
+
+    //스트림을 임시 파일로 복사하면서 SHA-256 계산(파일을 다시 읽지 않음)
+    //임시 파일은 저장 경로 안(tmp)에 만들어서 같은 파일시스템 안의 이동(rename)이 되게 함
+    public StagedContent stage(InputStream in) throws IOException {
+        Path tempFolder = contentRoot(storagePath, contentPath).resolve(TEMP_DIR);
+        Files.createDirectories(tempFolder);
+        Path tmp = Files.createTempFile(tempFolder, "upload", ".tmp");
+        MessageDigest digest = sha256();
+        long size;
+        try(OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+            size = in.transferTo(out);
+        } catch(IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return new StagedContent(tmp, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    //임시 파일을 저장소의 내용 주소 위치로 올림, 새로 만들었으면 true
+    //같은 내용이 이미 있으면 임시 파일만 지우고 false
+    public boolean commit(StagedContent staged) throws IOException {
+        String key = contentPath(staged.sha256());
+        if(blobStore.stat(key).isPresent()) {
+            Files.deleteIfExists(staged.tempFile());
+            return false;
+        }
+        blobStore.put(key, staged.tempFile());
+        return true;
+    }
+
+    //commit 전에 실패했을 때 임시 파일 정리
+    public void discard(StagedContent staged) {
+        try {
+            Files.deleteIfExists(staged.tempFile());
+        } catch(IOException ignored) {
+            //임시 폴더라 남아도 다음 정리 때 지움
+        }
+    }
+
+    //내용 주소 파일 삭제(참조가 없어졌을 때)
+    public void deleteContent(String relativePath) throws IOException {
+        if(relativePath.startsWith(CONTENT_DIR + "/") && !relativePath.contains("..")) {
+            blobStore.delete(relativePath);
+        }
+    }
+
+    //본문 폴더 경로(설정이 없으면 storagePath 옆)
+    public static Path contentRoot(String storagePath, String contentPath) {
+        if(contentPath != null && !contentPath.isBlank()) {
+            return Paths.get(contentPath).toAbsolutePath().normalize();
+        }
+        Path uploads = Paths.get(storagePath).toAbsolutePath().normalize();
+        return uploads.resolveSibling(uploads.getFileName() + "-content");
+    }
+
+    //objects/ab/cd/{hash}
+    public static String contentPath(String sha256) {
+        return CONTENT_DIR + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    //썸네일 저장: 원본 저장 + 폭별 축소본 생성
+    public String storeThumbnail(MultipartFile file) throws IOException {
+        String storeFilename = storeFile(file);
+        if(storeFilename != null) {
+            createThumbnailVariants(storeFilename);
+        }
+        return storeFilename;
+    }
+
+    //저장된 이미지의 폭별 축소본 생성(이미 있는 건 건너뜀), 새로 만든 개수 반환
+    //이미지가 아니거나 ImageIO가 못 읽는 형식이면 0
+    public int createThumbnailVariants(String storeFilename) throws IOException {
+        Path folder = Paths.get(storagePath).toAbsolutePath().normalize();
+        Path original = folder.resolve(storeFilename).normalize();
+        if(!original.startsWith(folder) || !Files.isRegularFile(original)) {
+            return 0;
+        }
+
+        boolean allExist = true;
+        for(int width : THUMBNAIL_WIDTHS) {
+            allExist &= Files.exists(folder.resolve(variantName(storeFilename, width)));
+        }
+        if(allExist) {
+            return 0;
+        }
+
+        BufferedImage source = ImageIO.read(original.toFile());
+        if(source == null) {
+            return 0;
+        }
+
+        int created = 0;
+        for(int width : THUMBNAIL_WIDTHS) {
+            Path target = folder.resolve(variantName(storeFilename, width));
+            if(Files.exists(target)) {
+                continue;
+            }
+            //임시 파일에 다 쓴 다음 이동(반쯤 쓰인 파일이 서빙되지 않게)
+            Path tmp = Files.createTempFile(folder, "thumb", ".tmp");
+            try {
+                writeJpeg(resize(source, width), tmp);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            created++;
+        }
+        return created;
+    }
+
+    //디스크에 있는 축소본 폭 목록("160,320,640"), 하나도 없으면 null(이미지가 아니거나 생성 실패)
+    public String existingVariantWidths(String storeFilename) {
+        if(storeFilename == null || storeFilename.isBlank()) {
+            return null;
+        }
+        Path folder = Paths.get(storagePath).toAbsolutePath().normalize();
+        StringJoiner widths = new StringJoiner(",");
+        for(int width : THUMBNAIL_WIDTHS) {
+            Path variant = folder.resolve(variantName(storeFilename, width)).normalize();
+            if(variant.startsWith(folder) && Files.isRegularFile(variant)) {
+                widths.add(String.valueOf(width));
+            }
+        }
+        return widths.length() == 0 ? null : widths.toString();
+    }
+
+    //축소본 파일명: {원본 이름}_w{폭}.jpg (원본 이름이 UUID라 내용이 바뀌지 않음 -> 오래 캐시 가능)
+    public static String variantName(String storeFilename, int width) {
+        int pos = storeFilename.lastIndexOf(".");
+        String base = pos == -1 ? storeFilename : storeFilename.substring(0, pos);
+        return base + "_w" + width + ".jpg";
+    }
+
+    //폭 기준 비율 유지 축소, 원본보다 크게 늘리지는 않음
+    //한 번에 크게 줄이면 계단 현상이 생겨서 절반씩 여러 번 줄임
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);    //투명 배경(PNG)은 흰색으로
+                g.fillRect(0, 0, w, h);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while(w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try(ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     // UUID 파일명 생성기
     private String createStoreFileName(String originalFileName) {
         String ext = extractExt(originalFileName);      //확장자 추출
@@ -3,6 +3,7 @@ package com.example.ebook.common;
 import java.io.IOException;
 import org.springframework.http.HttpHeaders;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,8 +38,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         
         String token = authHeader.substring(7); //"Bearer" 이후만
 
-        // 토큰 검증
-        if(!jwtProvider.isValid(token)) {
+        // 토큰 검증 + Claims 조회(한 번만, 검증된 토큰은 캐시에서)
+        Optional<Claims> resolved = jwtProvider.resolve(token);
+        if(resolved.isEmpty()) {
             // 유효하지 않으면 인증정보를 넣지 않고 통과
             // SecurityConfig에서 보호된 API는 결국 401/403 처리됨
             filterChain.doFilter(request, response);
@@ -46,7 +48,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         //토큰에서 userId/role 꺼내기
-        Claims claims = jwtProvider.parseClaims(token);
+        Claims claims = resolved.get();
         String userId = claims.getSubject();    //createAccessToken에서 subject에 넣은 값
         String role = (String)claims.get("role", String.class);   //ADMIN / USER
 
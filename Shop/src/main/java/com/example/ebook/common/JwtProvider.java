@@ -1,10 +1,28 @@
 package com.example.ebook.common;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -19,6 +37,28 @@ public class JwtProvider {
 
     private final long ACCESS_TOKEN_EXPIRE_MS = 1000L * 60 * 30; // 30분
 
+    //파서는 만들어 두고 재사용(스레드 안전)
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    //검증 끝난 토큰 캐시: 키는 토큰의 SHA-256, 토큰의 exp 시각에 만료
+    //-> 같은 토큰의 서명 검증은 노드당 한 번만
+    private final Cache<String, Claims> verifiedCache;
+
+    //검증(서명 확인 + 파싱) 횟수/소요시간/실패 수
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public JwtProvider(@Value("${ebook.jwt.verified-cache-max-size:100000}") long verifiedCacheMaxSize) {
+        this.verifiedCache = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(Expiry.creating((String hash, Claims claims) -> timeToExpire(claims)))
+                .recordStats()
+                .build();
+    }
+
     //accessToken 생성
     public String createAccessToken(Long userId, String role) {
         return Jwts.builder()
@@ -30,22 +70,71 @@ public class JwtProvider {
                 .compact();
     }
 
-    //토큰에서 Claims 꺼내기 : 검증도 같이 수행
+    //토큰에서 Claims 꺼내기 : 검증도 같이 수행(캐시 안 씀)
     public Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    //검증 + Claims 조회를 한 번에: 캐시에 있으면 서명 검증 생략, 무효 토큰이면 empty
+    //반환된 Claims는 캐시와 공유되므로 읽기만 할 것
+    public Optional<Claims> resolve(String token) {
+        if(token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String hash = sha256(token);
+        Claims cached = verifiedCache.getIfPresent(hash);
+        if(cached != null) {
+            return Optional.of(cached);
+        }
+
+        long started = System.nanoTime();
+        try {
+            Claims claims = parseClaims(token);
+            verifiedCache.put(hash, claims);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            failures.increment();   //무효 토큰은 캐시하지 않음
+            return Optional.empty();
+        } finally {
+            verifications.increment();
+            verifyNanos.add(System.nanoTime() - started);
+        }
     }
 
     // 토큰 유효성 검사 : true면 유효, false면 무효
     public boolean isValid(String token) {
+        return resolve(token).isPresent();
+    }
+
+    //캐시 적중률, 검증 횟수/평균 소요시간
+    public Map<String, Object> stats() {
+        CacheStats cs = verifiedCache.stats();
+        long count = verifications.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("cacheSize", verifiedCache.estimatedSize());
+        m.put("hitCount", cs.hitCount());
+        m.put("missCount", cs.missCount());
+        m.put("hitRate", cs.hitRate());
+        m.put("verifications", count);
+        m.put("verificationFailures", failures.sum());
+        m.put("avgVerifyMicros", count == 0 ? 0 : verifyNanos.sum() / count / 1000.0);
+        return m;
+    }
+
+    //---------내부 유틸-----------
+    //exp까지 남은 시간(없으면 발급 유효시간), 이미 지났으면 바로 만료
+    private Duration timeToExpire(Claims claims) {
+        Date exp = claims.getExpiration();
+        long remainingMs = exp == null ? ACCESS_TOKEN_EXPIRE_MS : exp.getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(0, remainingMs));
+    }
+
+    private static String sha256(String token) {
         try {
-            parseClaims(token); //검증 로직을 재사용
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.example.ebook.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+//로컬 디스크 저장소, 서버가 한 대일 때 기본값
+//-objects/ 키(내용 주소 본문): 본문 전용 폴더(FileStore.contentRoot, /uploads로 서빙되지 않음)
+//-그 외 키(내용 주소 이전의 UUID 파일명): 기존처럼 ebook.storage.path 아래
+//자주 받는 파일은 MappedFileCache로 파일 열기/stat 없이 전송
+@Component
+@ConditionalOnProperty(name = "ebook.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+	private final Path uploadRoot;
+	private final Path contentRoot;
+	private final MappedFileCache mappedFileCache;
+
+	public LocalBlobStore(@Value("${ebook.storage.path}") String storagePath,
+						  @Value("${ebook.storage.content-path:}") String contentPath,
+						  MappedFileCache mappedFileCache) {
+		this.uploadRoot = Paths.get(storagePath).toAbsolutePath().normalize();
+		this.contentRoot = FileStore.contentRoot(storagePath, contentPath);
+		this.mappedFileCache = mappedFileCache;
+	}
+
+	//같은 파일시스템이면 rename 한 번(반쯤 쓰인 파일이 보이지 않음)
+	@Override
+	public void put(String key, Path source) throws IOException {
+		Path target = resolve(key);
+		Files.createDirectories(target.getParent());
+		Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		mappedFileCache.invalidate(key);
+	}
+
+	@Override
+	public Optional<BlobInfo> stat(String key) throws IOException {
+		BlobInfo cached = mappedFileCache.peek(key);
+		if(cached != null) {
+			return Optional.of(cached);
+		}
+		Path path = resolve(key);
+		if(!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		return Optional.of(new BlobInfo(Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+	}
+
+	@Override
+	public InputStream open(String key, long start) throws IOException {
+		SeekableByteChannel channel = Files.newByteChannel(resolve(key), StandardOpenOption.READ);
+		channel.position(start);
+		return Channels.newInputStream(channel);
+	}
+
+	@Override
+	public void delete(String key) throws IOException {
+		mappedFileCache.invalidate(key);
+		Files.deleteIfExists(resolve(key));
+	}
+
+	//캐시 대상이면 매핑된 버퍼, 아니면 FileSystemResource(Range는 스프링이 파일에서 바로 처리)
+	@Override
+	public Resource asResource(String key, BlobInfo info) {
+		Path path = resolve(key);
+		return mappedFileCache.resource(key, path, info.size(), () -> new FileSystemResource(path));
+	}
+
+	//저장 경로 밖(../)으로 나가는 key 차단
+	private Path resolve(String key) {
+		Path root = key.startsWith(FileStore.CONTENT_DIR + "/") ? contentRoot : uploadRoot;
+		Path path = root.resolve(key).normalize();
+		if(!path.startsWith(root)) {
+			throw new IllegalArgumentException("invalid key: " + key);
+		}
+		return path;
+	}
+}
@@ -0,0 +1,193 @@
+package com.example.ebook.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/*
+ * 자주 받는 이북 파일의 메모리 매핑(mmap) 캐시(힙 밖, OS 페이지 캐시를 그대로 읽음)
+ * -캐시에 있으면 다운로드마다 파일 열기/stat 없이 매핑된 버퍼에서 바로 전송
+ * -전체 매핑 크기(바이트) 한도, 교체는 Caffeine W-TinyLFU(접근 빈도 기준)라 인기 파일이 남음
+ * -파일 경로(key)가 바뀌거나 파일이 지워지면 invalidate
+ * 매핑 해제는 버퍼가 GC될 때 일어남(Java 17에는 명시적 unmap API가 없음)
+ */
+@Component
+public class MappedFileCache {
+
+	//파일 하나가 캐시를 독차지하지 않도록(그리고 ByteBuffer 한 개 한도 2GB 미만)
+	private final long maxFileBytes;
+	private final boolean enabled;
+	private final Cache<String, MappedFile> files;
+
+	private final LongAdder bytesServed = new LongAdder();
+	private final LongAdder skippedLarge = new LongAdder();
+
+	private record MappedFile(MappedByteBuffer buffer, long size, long lastModified) {}
+
+	public MappedFileCache(@Value("${ebook.download.mmap-cache-enabled:true}") boolean enabled,
+						   @Value("${ebook.download.mmap-cache-max-bytes:1073741824}") long maxBytes,
+						   @Value("${ebook.download.mmap-max-file-bytes:268435456}") long maxFileBytes,
+						   @Value("${ebook.download.mmap-idle-minutes:30}") long idleMinutes) {
+		this.enabled = enabled;
+		this.maxFileBytes = Math.min(maxFileBytes, Integer.MAX_VALUE);
+		this.files = Caffeine.newBuilder()
+				.maximumWeight(Math.max(1, maxBytes / 1024))
+				.weigher((String key, MappedFile f) -> (int) Math.max(1, (f.size() + 1023) / 1024))	//KB 단위(int 범위)
+				.expireAfterAccess(Duration.ofMinutes(idleMinutes))	//한동안 안 받는 파일은 매핑 반납
+				.recordStats()
+				.build();
+	}
+
+	//캐시에 있는 파일의 크기/수정 시각(없으면 null, 파일시스템을 보지 않음)
+	//적중률은 다운로드(resource) 기준으로만 세도록 asMap 조회(통계에 안 잡힘)
+	public BlobStore.BlobInfo peek(String key) {
+		MappedFile f = enabled ? files.asMap().get(key) : null;
+		return f == null ? null : new BlobStore.BlobInfo(f.size(), f.lastModified());
+	}
+
+	//매핑된 Resource, 캐시 대상이 아니면(너무 크거나 꺼져 있음) fallback
+	public Resource resource(String key, Path path, long size, Supplier<Resource> fallback) {
+		if(!enabled || size == 0) {
+			return fallback.get();
+		}
+		if(size > maxFileBytes) {
+			skippedLarge.increment();
+			return fallback.get();
+		}
+		MappedFile f = files.get(key, k -> map(path));
+		return f == null ? fallback.get() : new MappedResource(key, f);
+	}
+
+	public void invalidate(String key) {
+		if(key != null) {
+			files.invalidate(key);
+		}
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		CacheStats s = files.stats();
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("enabled", enabled);
+		m.put("files", files.estimatedSize());
+		m.put("mappedBytes", files.policy().eviction().map(e -> e.weightedSize().orElse(0) * 1024).orElse(0L));
+		m.put("hitCount", s.hitCount());
+		m.put("missCount", s.missCount());
+		m.put("hitRate", s.hitRate());
+		m.put("evictionCount", s.evictionCount());
+		m.put("bytesServedFromCache", bytesServed.sum());
+		m.put("skippedLargeFiles", skippedLarge.sum());
+		return m;
+	}
+
+	//---------내부 유틸-----------
+	//읽기 전용 매핑, 매핑 후에는 채널을 닫아도 버퍼는 유효
+	private static MappedFile map(Path path) {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long lastModified = Files.getLastModifiedTime(path).toMillis();
+			return new MappedFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size, lastModified);
+		} catch(IOException e) {
+			return null;	//캐시하지 않고 일반 파일 읽기로
+		}
+	}
+
+	//매핑된 버퍼를 읽는 Resource(요청마다 duplicate -> 위치만 따로, 메모리는 공유)
+	private class MappedResource extends AbstractResource {
+		private final String key;
+		private final MappedFile file;
+
+		MappedResource(String key, MappedFile file) {
+			this.key = key;
+			this.file = file;
+		}
+
+		@Override
+		public String getDescription() {
+			return "mapped file [" + key + "]";
+		}
+
+		@Override
+		public String getFilename() {
+			return key.substring(key.lastIndexOf('/') + 1);
+		}
+
+		@Override
+		public long contentLength() {
+			return file.size();
+		}
+
+		@Override
+		public long lastModified() {
+			return file.lastModified();
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new BufferInputStream(file.buffer().duplicate());
+		}
+	}
+
+	//skip은 위치 이동만(Range 시작 위치까지 읽지 않음)
+	private class BufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		BufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			if(!buffer.hasRemaining()) {
+				return -1;
+			}
+			bytesServed.increment();
+			return buffer.get() & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if(len == 0) {
+				return 0;
+			}
+			if(!buffer.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			bytesServed.add(n);
+			return n;
+		}
+
+		@Override
+		public long skip(long n) {
+			int k = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + k);
+			return k;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.ebook.common;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ * 서명 토큰 재사용(replay) 제한
+ * 토큰 nonce별 사용 횟수를 만료 시각 기준 1분 버킷에 나눠 보관
+ * 만료된 버킷은 통째로 버림 -> 유효기간 안의 토큰 수만큼만 메모리 사용
+ * 이어받기(Range)를 위해 1회가 아닌 maxUses 회까지 허용
+ */
+@Component
+public class NonceReplayGuard {
+
+    private static final long BUCKET_SECONDS = 60;
+
+    private final int maxUses;
+
+    //key: 만료시각(초) / 60, value: nonce -> 사용 횟수
+    private final ConcurrentSkipListMap<Long, Map<String, AtomicInteger>> buckets = new ConcurrentSkipListMap<>();
+
+    public NonceReplayGuard(@Value("${ebook.download.max-uses-per-token:20}") int maxUses) {
+        this.maxUses = maxUses;
+    }
+
+    //사용 기록 후 허용 여부 반환(허용 횟수 초과면 false)
+    public boolean tryUse(String nonce, long expiresAtEpochSecond) {
+        evictExpired();
+        long bucket = expiresAtEpochSecond / BUCKET_SECONDS;
+        AtomicInteger count = buckets
+                .computeIfAbsent(bucket, b -> new ConcurrentHashMap<>())
+                .computeIfAbsent(nonce, n -> new AtomicInteger());
+        return count.incrementAndGet() <= maxUses;
+    }
+
+    //현재 추적 중인 nonce 개수(모니터링용)
+    public int size() {
+        return buckets.values().stream().mapToInt(Map::size).sum();
+    }
+
+    //이미 만료된 토큰들의 버킷 제거(만료 토큰은 서명 검증 단계에서 거절되므로 기록 불필요)
+    private void evictExpired() {
+        long current = Instant.now().getEpochSecond() / BUCKET_SECONDS;
+        buckets.headMap(current).clear();
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.ebook.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/*
+ * S3 호환 저장소(AWS S3, MinIO 등)
+ * -SDK 없이 JDK HttpClient + SigV4 서명(PUT/GET/HEAD/DELETE 네 가지만 사용)
+ * -본문은 서명하지 않음(UNSIGNED-PAYLOAD): 업로드 파일을 해시하려고 한 번 더 읽지 않음
+ * -GET은 Range로 시작 위치부터, 다운로드는 서명 URL(presigned)로 저장소에 넘길 수 있음
+ * -path-style=true면 {endpoint}/{bucket}/{key}(MinIO/로컬 스텁), false면 {bucket}.{endpoint host}/{key}
+ * -S3에는 내용 주소 본문(objects/)만 있음, 그 이전에 올라간 UUID 파일명 키는 로컬(ebook.storage.path)에서 읽음
+ *  (옮기려면 같은 파일을 S3의 같은 키로 복사하면 되고, 그 전까지는 로컬 디스크가 필요)
+ * -썸네일은 /uploads로 로컬에서 바로 서빙하므로 서버가 여러 대면 ebook.storage.path는 공유 디스크여야 함
+ */
+@Component
+@ConditionalOnProperty(name = "ebook.storage.type", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Duration MAX_PRESIGN_TTL = Duration.ofDays(7);    //S3 서명 URL 최대 유효기간
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final boolean pathStyle;
+    private final Duration readTimeout;
+    private final Clock clock;
+    private final BlobStore legacy;     //objects/ 밖의 키(없으면 전부 S3)
+
+    @Autowired
+    public S3BlobStore(@Value("${ebook.storage.s3.endpoint:https://s3.ap-northeast-2.amazonaws.com}") String endpoint,
+                       @Value("${ebook.storage.s3.bucket}") String bucket,
+                       @Value("${ebook.storage.s3.region:ap-northeast-2}") String region,
+                       @Value("${ebook.storage.s3.access-key}") String accessKey,
+                       @Value("${ebook.storage.s3.secret-key}") String secretKey,
+                       @Value("${ebook.storage.s3.path-style:true}") boolean pathStyle,
+                       @Value("${ebook.storage.s3.connect-timeout-ms:3000}") long connectTimeoutMs,
+                       @Value("${ebook.storage.s3.read-timeout-ms:30000}") long readTimeoutMs,
+                       @Value("${ebook.storage.path}") String storagePath,
+                       @Value("${ebook.storage.content-path:}") String contentPath,
+                       MappedFileCache mappedFileCache) {
+        this(endpoint, bucket, region, accessKey, secretKey, pathStyle, connectTimeoutMs, readTimeoutMs, Clock.systemUTC(),
+                new LocalBlobStore(storagePath, contentPath, mappedFileCache));
+    }
+
+    //테스트용(서명 시각 고정, legacy가 null이면 모든 키를 S3로)
+    S3BlobStore(String endpoint, String bucket, String region, String accessKey, String secretKey,
+                boolean pathStyle, long connectTimeoutMs, long readTimeoutMs, Clock clock, BlobStore legacy) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.pathStyle = pathStyle;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.clock = clock;
+        this.legacy = legacy;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        if(isLegacy(key)) {
+            legacy.put(key, source);
+            return;
+        }
+        HttpRequest request = signed("PUT", key, Map.of())
+                .PUT(HttpRequest.BodyPublishers.ofFile(source))
+                .build();
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        if(response.statusCode() != 200) {
+            throw new IOException("S3 PUT " + key + " failed: " + response.statusCode() + " " + response.body());
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        if(isLegacy(key)) {
+            return legacy.stat(key);
+        }
+        HttpRequest request = signed("HEAD", key, Map.of())
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if(response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if(response.statusCode() != 200) {
+            throw new IOException("S3 HEAD " + key + " failed: " + response.statusCode());
+        }
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        long lastModified = response.headers().firstValue("Last-Modified")
+                .map(v -> ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                .orElse(0L);
+        return Optional.of(new BlobInfo(size, lastModified));
+    }
+
+    @Override
+    public InputStream open(String key, long start) throws IOException {
+        if(isLegacy(key)) {
+            return legacy.open(key, start);
+        }
+        Map<String, String> headers = start > 0 ? Map.of("range", "bytes=" + start + "-") : Map.of();
+        HttpRequest request = signed("GET", key, headers).GET().build();
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if(status == 200 || status == 206) {
+            return response.body();
+        }
+        try(InputStream error = response.body()) {
+            if(status == 416) {
+                return InputStream.nullInputStream();   //끝 이후부터 읽기
+            }
+            throw new IOException("S3 GET " + key + " failed: " + status + " "
+                    + new String(error.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        if(isLegacy(key)) {
+            legacy.delete(key);
+            return;
+        }
+        HttpRequest request = signed("DELETE", key, Map.of()).DELETE().build();
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        if(status != 204 && status != 200 && status != 404) {
+            throw new IOException("S3 DELETE " + key + " failed: " + status + " " + response.body());
+        }
+    }
+
+    //쿼리 문자열 서명 URL(GET), 받는 쪽 파일명은 response-content-disposition으로 지정
+    @Override
+    public Optional<URI> presignedGet(String key, String downloadName, Duration ttl) {
+        if(isLegacy(key)) {
+            return Optional.empty();    //로컬 파일은 앱이 직접 전송
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock).withZoneSameInstant(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(now);
+        String scope = DATE_STAMP.format(now) + "/" + region + "/s3/aws4_request";
+        long expires = Math.max(1, Math.min(ttl.getSeconds(), MAX_PRESIGN_TTL.getSeconds()));
+
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", Long.toString(expires));
+        query.put("X-Amz-SignedHeaders", "host");
+        if(downloadName != null && !downloadName.isBlank()) {
+            query.put("response-content-disposition", "attachment; filename*=UTF-8''" + encode(downloadName));
+        }
+        String canonicalQuery = canonicalQuery(query);
+
+        String canonicalRequest = "GET\n" + canonicalPath(key) + "\n" + canonicalQuery + "\n"
+                + "host:" + host() + "\n\n" + "host\n" + UNSIGNED_PAYLOAD;
+        String signature = sign(now, scope, canonicalRequest);
+        return Optional.of(URI.create(baseUri() + canonicalPath(key) + "?" + canonicalQuery + "&X-Amz-Signature=" + signature));
+    }
+
+    @Override
+    public Resource asResource(String key, BlobInfo info) {
+        return isLegacy(key) ? legacy.asResource(key, info) : BlobStore.super.asResource(key, info);
+    }
+
+    //---------내부 유틸-----------
+    private boolean isLegacy(String key) {
+        return legacy != null && !key.startsWith(FileStore.CONTENT_DIR + "/");
+    }
+
+    //헤더 서명 요청: host, x-amz-content-sha256, x-amz-date(+ 추가 헤더) 서명
+    private HttpRequest.Builder signed(String method, String key, Map<String, String> extraHeaders) {
+        ZonedDateTime now = ZonedDateTime.now(clock).withZoneSameInstant(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(now);
+        String scope = DATE_STAMP.format(now) + "/" + region + "/s3/aws4_request";
+
+        Map<String, String> headers = new TreeMap<>(extraHeaders);
+        headers.put("host", host());
+        headers.put("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+        headers.put("x-amz-date", amzDate);
+
+        StringBuilder canonicalHeaders = new StringBuilder();
+        for(Map.Entry<String, String> h : headers.entrySet()) {
+            canonicalHeaders.append(h.getKey()).append(':').append(h.getValue().trim()).append('\n');
+        }
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalRequest = method + "\n" + canonicalPath(key) + "\n\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + UNSIGNED_PAYLOAD;
+        String signature = sign(now, scope, canonicalRequest);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUri() + canonicalPath(key)))
+                .timeout(readTimeout)
+                .header("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                        + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        headers.forEach((name, value) -> {
+            if(!name.equals("host")) {  //host는 HttpClient가 직접 넣음
+                builder.header(name, value);
+            }
+        });
+        return builder;
+    }
+
+    private String sign(ZonedDateTime now, String scope, String canonicalRequest) {
+        String stringToSign = ALGORITHM + "\n" + AMZ_DATE.format(now) + "\n" + scope + "\n"
+                + HexFormat.of().formatHex(sha256(canonicalRequest));
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), DATE_STAMP.format(now));
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        return HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+    }
+
+    private String baseUri() {
+        return endpoint.getScheme() + "://" + host();
+    }
+
+    private String host() {
+        String host = pathStyle ? endpoint.getHost() : bucket + "." + endpoint.getHost();
+        return endpoint.getPort() == -1 ? host : host + ":" + endpoint.getPort();
+    }
+
+    //경로 세그먼트별 인코딩(슬래시는 유지)
+    private String canonicalPath(String key) {
+        StringBuilder path = new StringBuilder();
+        if(pathStyle) {
+            path.append('/').append(encode(bucket));
+        }
+        for(String segment : key.split("/", -1)) {
+            path.append('/').append(encode(segment));
+        }
+        return path.toString();
+    }
+
+    private static String canonicalQuery(Map<String, String> sortedQuery) {
+        StringBuilder query = new StringBuilder();
+        for(Map.Entry<String, String> q : sortedQuery.entrySet()) {
+            if(query.length() > 0) {
+                query.append('&');
+            }
+            query.append(encode(q.getKey())).append('=').append(encode(q.getValue()));
+        }
+        return query.toString();
+    }
+
+    //RFC 3986 인코딩(URLEncoder는 공백을 +로, ~를 %7E로 바꾸므로 보정)
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch(NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
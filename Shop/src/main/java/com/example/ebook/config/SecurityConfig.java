@@ -17,6 +17,7 @@ import com.example.ebook.common.JwtProvider;
 import com.example.ebook.oauth.CustomerOAuth2UserService;
 import com.example.ebook.oauth.OAuth2SuccessHandler;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
@@ -54,6 +55,8 @@ public class SecurityConfig {
 
         //URL 별 접근 제어
         http.authorizeHttpRequests(auth -> auth
+                //비동기 응답(CompletableFuture) 재디스패치: 최초 요청에서 이미 인가됨
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 //프론트엔드 정적 파일들 로그인 없이 허용
                 .requestMatchers("/", "/index.html", "/static/**", "/assets/**", "/favicon.ico", "*.svg").permitAll()
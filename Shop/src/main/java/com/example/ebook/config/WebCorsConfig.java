@@ -1,9 +1,13 @@
 package com.example.ebook.config;
 
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 
 @Configuration
 public class WebCorsConfig implements WebMvcConfigurer{
@@ -23,11 +27,23 @@ public class WebCorsConfig implements WebMvcConfigurer{
 	}
 
 	//정적 파일(프론트 엔드) 경로 설정
+	//빌드 때 미리 압축해 둔 .br/.gz를 Accept-Encoding에 맞게 골라 보냄(EncodedResourceResolver, Vary: Accept-Encoding)
+	//resourceChain(true): 경로 -> 파일 해석 결과를 캐시(인코딩별로 따로)
 	@Override
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
+		//Vite 빌드 결과(assets/)는 파일명에 내용 해시가 들어감 -> 1년 immutable
+		registry.addResourceHandler("/assets/**")
+				.addResourceLocations("classpath:/static/assets/")
+				.setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+				.resourceChain(true)
+				.addResolver(new EncodedResourceResolver());
+
+		//index.html 등은 파일명이 고정 -> 매번 재검증(Last-Modified로 304), 배포하면 바로 새 assets를 가리킴
 		registry.addResourceHandler("/**")
 				.addResourceLocations("classpath:/static/")
-				.setCachePeriod(0);
+				.setCacheControl(CacheControl.noCache())
+				.resourceChain(true)
+				.addResolver(new EncodedResourceResolver());
 	}
 
 }
@@ -1,9 +1,17 @@
 package com.example.ebook.config;
 
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 @Configuration
 public class WebResourceConfig implements WebMvcConfigurer {
@@ -15,7 +23,31 @@ public class WebResourceConfig implements WebMvcConfigurer {
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String resourceLocation = "file:///" + storagePath + "/";
 
+		//업로드 파일명은 UUID라 같은 이름의 내용이 바뀌지 않음 -> 1년 immutable 캐시
+		//ETag는 파일명+크기+수정시각(내용 해시 없이 강한 ETag), If-None-Match/If-Modified-Since면 304
+		//이미지(썸네일)만 공개: 같은 폴더의 이북 본문(예전 UUID 파일)은 다운로드 토큰으로만 받게 404
 		registry.addResourceHandler("/uploads/**")
-				.addResourceLocations(resourceLocation);
+				.addResourceLocations(resourceLocation)
+				.setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+				.setEtagGenerator(resource -> {
+					try {
+						return "\"" + resource.getFilename() + "-" + resource.contentLength() + "-" + resource.lastModified() + "\"";
+					} catch(IOException e) {
+						return null;
+					}
+				})
+				.resourceChain(true)
+				.addResolver(new ImageOnlyResourceResolver());
+	}
+
+	private static class ImageOnlyResourceResolver extends PathResourceResolver {
+		private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "webp", "bmp");
+
+		@Override
+		protected Resource getResource(String resourcePath, Resource location) throws IOException {
+			int pos = resourcePath.lastIndexOf('.');
+			String ext = pos == -1 ? "" : resourcePath.substring(pos + 1).toLowerCase(Locale.ROOT);
+			return IMAGE_EXTENSIONS.contains(ext) ? super.getResource(resourcePath, location) : null;
+		}
 	}
 }
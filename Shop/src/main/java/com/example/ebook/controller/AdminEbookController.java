@@ -11,6 +11,9 @@ import com.example.ebook.dto.EbookResponse;
 import com.example.ebook.dto.PageResponse;
 import com.example.ebook.entity.Ebook;
 import com.example.ebook.service.EbookService;
+import com.example.ebook.service.StoredFileService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -29,6 +32,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 
@@ -39,10 +43,12 @@ public class AdminEbookController {
 
     private final EbookService ebookService;
     private final FileStore fileStore;
+    private final StoredFileService storedFileService;
 
-    public AdminEbookController(EbookService ebookService, FileStore fileStore) {
+    public AdminEbookController(EbookService ebookService, FileStore fileStore, StoredFileService storedFileService) {
         this.ebookService = ebookService;   //생성자 주입
         this.fileStore = fileStore;
+        this.storedFileService = storedFileService;
     }
 
     @GetMapping //GET /admin/ebooks
@@ -93,23 +99,46 @@ public class AdminEbookController {
             @RequestParam(name = "category", defaultValue = "ALL") String category) throws IOException{
         
         //파일 저장(FileStore 위임)
-        String thumbnailPath = fileStore.storeFile(thumbnail);
-        String filePath = fileStore.storeFile(file);
+        String thumbnailPath = fileStore.storeThumbnail(thumbnail);   //폭별 축소본도 같이 생성
+        //본문은 내용 주소 저장(같은 파일이면 한 번만 저장)
+        String filePath = (file != null && !file.isEmpty()) ? storedFileService.store(file.getInputStream()) : null;
         String originalFileName = (file != null) ? file.getOriginalFilename() : null;
         
         //서비스 호출
-        Ebook saved = ebookService.create(
-            title,
-            author,
-            price,
-            status,
-            category,
-            thumbnailPath,
-            filePath,
-            originalFileName
-        );
+        Ebook saved;
+        try {
+            saved = ebookService.create(
+                title,
+                author,
+                price,
+                status,
+                category,
+                thumbnailPath,
+                filePath,
+                originalFileName
+            );
+        } catch(RuntimeException e) {
+            storedFileService.release(filePath);    //저장 실패면 방금 올린 파일 참조도 해제
+            throw e;
+        }
         return EbookResponse.from(saved);
     }
+
+    //본문 파일 교체(멀티파트 없이 요청 바디를 그대로 스트리밍)
+    //PUT /admin/ebooks/{id}/file?filename=book.pdf, Content-Type: application/octet-stream
+    @PutMapping(value = "/{id}/file", consumes = "application/octet-stream")
+    public EbookResponse uploadFile(@PathVariable(name = "id") Long id,
+                                    @RequestParam(name = "filename") String filename,
+                                    HttpServletRequest request) throws IOException {
+        ebookService.getById(id);   //없는 이북이면 저장 전에 400(EbookService.findById와 같은 응답)
+        String filePath = storedFileService.store(request.getInputStream());
+        try {
+            return EbookResponse.from(ebookService.replaceFile(id, filePath, filename));
+        } catch(RuntimeException e) {
+            storedFileService.release(filePath);    //교체 실패(그 사이 삭제 등)면 방금 올린 파일 참조 해제
+            throw e;
+        }
+    }
     
     @PatchMapping("/{id}")  //PATCH /admin/ebooks/{id}
     public EbookResponse update(@PathVariable(name = "id") Long id,
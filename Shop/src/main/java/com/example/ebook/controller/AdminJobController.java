@@ -0,0 +1,49 @@
+package com.example.ebook.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ebook.service.DownloadTokenPurger;
+import com.example.ebook.service.EntitlementService;
+import com.example.ebook.service.ThumbnailBackfill;
+
+/*
+ * 관리자용 수동 작업 실행(주기 작업을 바로 한 번 돌릴 때)
+ * /admin/** 경로라 ADMIN 권한 필요
+ */
+@RestController
+@RequestMapping("/admin/jobs")
+public class AdminJobController {
+
+    private final DownloadTokenPurger downloadTokenPurger;
+    private final EntitlementService entitlementService;
+    private final ThumbnailBackfill thumbnailBackfill;
+
+    public AdminJobController(DownloadTokenPurger downloadTokenPurger, EntitlementService entitlementService,
+                              ThumbnailBackfill thumbnailBackfill) {
+        this.downloadTokenPurger = downloadTokenPurger;
+        this.entitlementService = entitlementService;
+        this.thumbnailBackfill = thumbnailBackfill;
+    }
+
+    //만료 다운로드 토큰 정리 1회 실행: POST /admin/jobs/download-token-purge
+    @PostMapping("/download-token-purge")
+    public DownloadTokenPurger.PurgeResult purgeDownloadTokens() {
+        return downloadTokenPurger.purge();
+    }
+
+    //PAID 주문 중 이용권이 없는 항목 채우기: POST /admin/jobs/entitlement-backfill
+    @PostMapping("/entitlement-backfill")
+    public Map<String, Object> backfillEntitlements() {
+        return Map.of("inserted", entitlementService.backfill());
+    }
+
+    //축소본이 없는 썸네일의 폭별 축소본 생성: POST /admin/jobs/thumbnail-variants
+    @PostMapping("/thumbnail-variants")
+    public Map<String, Object> createThumbnailVariants() {
+        return Map.of("created", thumbnailBackfill.backfill());
+    }
+}
@@ -1,30 +1,93 @@
 package com.example.ebook.controller;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
 import com.example.ebook.dto.OrderDetail;
+import com.example.ebook.dto.PageResponse;
 import com.example.ebook.service.AdminOrderService;
 
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+@Validated
 @RestController
 @RequestMapping("/admin/orders")
 public class AdminOrderController {
 
     private final AdminOrderService adminOrderService;
+    private final int listLimit;
 
-    public AdminOrderController(AdminOrderService adminOrderService) {
+    public AdminOrderController(AdminOrderService adminOrderService,
+                                @Value("${ebook.admin.order-list-limit:500}") int listLimit) {
         this.adminOrderService = adminOrderService;
+        this.listLimit = listLimit;
     }
 
-    //관리자용: 모든 유저의 전체 주문 내역 조회
+    //관리자용: 모든 유저의 최근 주문 내역 조회(최대 order-list-limit건)
+    //전체 조회는 주문 수만큼 메모리를 쓰므로 폐기 예정 -> /admin/orders/page 사용
+    @Deprecated
     @GetMapping
     public ResponseEntity<?> getAllOrders() {
         //서비스에 DTO 요청명령
-        List<OrderDetail> allOrders = adminOrderService.getAllOrdersForAdmin();
+        List<OrderDetail> allOrders = adminOrderService.getRecentOrdersForAdmin(listLimit);
+
+        //데이터 바로 리턴(후속 엔드포인트 안내)
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</admin/orders/page>; rel=\"successor-version\"")
+                .body(allOrders);
+    }
+
+    //관리자용 주문 검색(페이지): GET /admin/orders/page?status=PAID&userId=1&page=0&size=50
+    @GetMapping("/page")
+    public PageResponse<OrderDetail> searchOrders(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "page", defaultValue = "0") @Min(0) int page,
+            @RequestParam(value = "size", defaultValue = "50") @Min(1) @Max(500) int size) {
+        return adminOrderService.searchOrders(status, userId, page, size);
+    }
+
+    //주문 내보내기(파일 다운로드): GET /admin/orders/export?format=csv|ndjson&status=PAID&from=2025-01-01&to=2025-01-31
+    //응답 스트림에 바로 써서 주문 수와 상관없이 메모리 사용이 일정
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if(!ndjson && !"csv".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format은 csv 또는 ndjson만 가능합니다.");
+        }
+        LocalDateTime fromTime = from == null ? null : from.atStartOfDay();
+        LocalDateTime toTime = to == null ? null : to.plusDays(1).atStartOfDay();  //to 날짜 포함
+
+        String fileName = "orders-" + LocalDate.now() + (ndjson ? ".ndjson" : ".csv");
+        response.setContentType(ndjson ? "application/x-ndjson;charset=UTF-8" : "text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
 
-        //데이터 바로 리턴
-        return ResponseEntity .ok(allOrders);
+        if(ndjson) {
+            adminOrderService.exportNdjson(status, fromTime, toTime, response.getOutputStream());
+        } else {
+            adminOrderService.exportCsv(status, fromTime, toTime, response.getOutputStream());
+        }
     }
 }
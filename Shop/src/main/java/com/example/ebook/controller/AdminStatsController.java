@@ -0,0 +1,105 @@
+package com.example.ebook.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ebook.common.JwtProvider;
+import com.example.ebook.common.MappedFileCache;
+import com.example.ebook.service.DownloadTokenPurger;
+import com.example.ebook.service.EbookCatalogCache;
+import com.example.ebook.service.EbookCountCache;
+import com.example.ebook.service.EbookSearchIndex;
+import com.example.ebook.service.EntitlementService;
+import com.example.ebook.service.PaymentService;
+import com.example.ebook.service.StoredFileService;
+
+/*
+ * 관리자용 운영 지표 조회(캐시 적중률 등)
+ * /admin/** 경로라 ADMIN 권한 필요
+ */
+@RestController
+@RequestMapping("/admin/stats")
+public class AdminStatsController {
+
+    private final EbookCatalogCache catalogCache;
+    private final EbookSearchIndex searchIndex;
+    private final EbookCountCache countCache;
+    private final JwtProvider jwtProvider;
+    private final PaymentService paymentService;
+    private final DownloadTokenPurger downloadTokenPurger;
+    private final EntitlementService entitlementService;
+    private final StoredFileService storedFileService;
+    private final MappedFileCache mappedFileCache;
+
+    public AdminStatsController(EbookCatalogCache catalogCache, EbookSearchIndex searchIndex, EbookCountCache countCache,
+                                JwtProvider jwtProvider, PaymentService paymentService, DownloadTokenPurger downloadTokenPurger,
+                                EntitlementService entitlementService, StoredFileService storedFileService,
+                                MappedFileCache mappedFileCache) {
+        this.catalogCache = catalogCache;
+        this.searchIndex = searchIndex;
+        this.countCache = countCache;
+        this.jwtProvider = jwtProvider;
+        this.paymentService = paymentService;
+        this.downloadTokenPurger = downloadTokenPurger;
+        this.entitlementService = entitlementService;
+        this.storedFileService = storedFileService;
+        this.mappedFileCache = mappedFileCache;
+    }
+
+    //카탈로그 캐시 hit/miss: GET /admin/stats/catalog-cache
+    @GetMapping("/catalog-cache")
+    public Map<String, Object> catalogCache() {
+        return catalogCache.stats();
+    }
+
+    //검색 색인 상태(문서 수, n-gram 수): GET /admin/stats/search-index
+    @GetMapping("/search-index")
+    public Map<String, Object> searchIndex() {
+        return searchIndex.stats();
+    }
+
+    //(상태, 카테고리)별 이북 수 캐시와 마지막 보정 오차: GET /admin/stats/catalog-count
+    @GetMapping("/catalog-count")
+    public Map<String, Object> catalogCount() {
+        return countCache.stats();
+    }
+
+    //JWT 검증 캐시 적중률, 서명 검증 횟수/평균 시간: GET /admin/stats/jwt
+    @GetMapping("/jwt")
+    public Map<String, Object> jwt() {
+        return jwtProvider.stats();
+    }
+
+    //결제 승인 멱등 처리: 토스 호출 수, 합쳐진 요청/캐시 응답 수: GET /admin/stats/payment-confirm
+    @GetMapping("/payment-confirm")
+    public Map<String, Object> paymentConfirm() {
+        return paymentService.stats();
+    }
+
+    //만료 다운로드 토큰 정리: 마지막 실행 결과/누적 삭제 수: GET /admin/stats/download-token-purge
+    @GetMapping("/download-token-purge")
+    public Map<String, Object> downloadTokenPurge() {
+        return downloadTokenPurger.stats();
+    }
+
+    //사용자별 소유 목록 캐시 적중률: GET /admin/stats/entitlement
+    @GetMapping("/entitlement")
+    public Map<String, Object> entitlement() {
+        return entitlementService.stats();
+    }
+
+    //이북 본문 저장: 파일 수, 중복 업로드로 아낀 바이트: GET /admin/stats/stored-files
+    @GetMapping("/stored-files")
+    public Map<String, Object> storedFiles() {
+        return storedFileService.stats();
+    }
+
+    //인기 이북 파일 mmap 캐시 적중률/캐시에서 보낸 바이트: GET /admin/stats/download-cache
+    @GetMapping("/download-cache")
+    public Map<String, Object> downloadCache() {
+        return mappedFileCache.stats();
+    }
+}
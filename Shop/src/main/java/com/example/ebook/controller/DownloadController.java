@@ -1,5 +1,11 @@
 package com.example.ebook.controller;
 
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -8,6 +14,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,6 +22,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import com.example.ebook.dto.DownloadTokenResponse;
 import com.example.ebook.service.DownloadTokenService;
+import com.example.ebook.service.DownloadTokenService.DownloadFile;
 
 import jakarta.validation.constraints.NotNull;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -56,17 +64,62 @@ public class DownloadController {
 	}
 
 	//다운로드: GET /downloads/{token}
+	//byte[] 대신 Resource를 반환 -> 메시지 컨버터가 고정 크기 버퍼로 파일을 흘려보냄(파일 크기만큼 힙 할당 X)
+	//Range 요청이면 스프링이 Resource 바디에 206 Partial Content(범위 밖이면 416)를 적용
+	//ETag/Last-Modified를 내려주므로 If-None-Match, If-Range 이어받기 검증이 가능
 	@GetMapping("/{token}")
-	public ResponseEntity<byte[]> download(@PathVariable("token") String token) {
+	public ResponseEntity<Resource> download(@PathVariable("token") String token,
+											 @RequestHeader HttpHeaders requestHeaders) {
 		
-		//서비스에서 토큰 검증 + 파일 바이트 생성
+		//서비스에서 토큰 검증 + 파일 Resource 생성
 		var file = downloadTokenService.download(token);
-		
-		return ResponseEntity.ok()
+
+		//원격 저장소(S3): 서명 URL로 넘겨서 저장소가 직접 전송(Range도 저장소가 처리)
+		if(file.redirect() != null) {
+			return ResponseEntity.status(HttpStatus.FOUND)
+					.location(file.redirect())
+					.header(HttpHeaders.CACHE_CONTROL, "no-store")
+					.build();
+		}
+
+		var response = ResponseEntity.ok()
 				.header(HttpHeaders.CONTENT_DISPOSITION,
 						"attachment; filename=\"" + file.filename() + "\"")
+				.header(HttpHeaders.ACCEPT_RANGES, "bytes")
 				.contentType(MediaType.APPLICATION_OCTET_STREAM)
-				.body(file.bytes());
+				.eTag(file.etag())
+				.lastModified(file.lastModified());
+
+		//If-Range가 현재 파일과 다르면(중간에 파일 교체) 부분 응답 대신 전체를 다시 보내야 함
+		//InputStreamResource는 스프링이 Range 처리를 하지 않으므로 200 전체 응답이 됨
+		//-> 길이를 모르는 스트림이라 Content-Length를 직접 지정(없으면 chunked 전송)
+		//-> 원본 Resource를 감싸기만 하고 스트림은 바디를 쓸 때 열고 닫음(쓰기 전에 실패해도 새지 않음)
+		if(requestHeaders.getFirst(HttpHeaders.RANGE) != null
+				&& !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), file)) {
+			return response.contentLength(file.length())
+					.body(new InputStreamResource(file.resource()));
+		}
+		
+		return response.body(file.resource());
+	}
+
+	//If-Range 검증: 없으면 Range 그대로 적용, 강한 ETag 또는 HTTP-date가 현재 파일과 같을 때만 일치
+	private boolean ifRangeMatches(String ifRange, DownloadFile file) {
+		if(ifRange == null || ifRange.isBlank()) {
+			return true;
+		}
+		if(ifRange.startsWith("W/")) {
+			return false;	//약한 ETag는 Range에 쓸 수 없음
+		}
+		if(ifRange.startsWith("\"")) {
+			return ifRange.equals(file.etag());
+		}
+		try {
+			long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+			return date / 1000 == file.lastModified() / 1000;	//HTTP-date는 초 단위
+		} catch(DateTimeParseException e) {
+			return false;
+		}
 	}
 	
 }
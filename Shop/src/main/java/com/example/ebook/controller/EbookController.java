@@ -2,9 +2,11 @@ package com.example.ebook.controller;
 
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
@@ -69,6 +71,35 @@ public class EbookController {
 		);
 	}
 
+	/*
+	커서(키셋) 기반 목록조회: 깊은 페이지도 OFFSET 스캔 없이 일정한 속도
+	GET /api/ebooks/cursor?after=마지막id&size=10&category=IT&withTotal=false
+	첫 페이지는 after 생략, 응답의 nextCursor를 다음 요청의 after로 사용
+	total은 withTotal=true일 때만 계산(아니면 -1)
+	*/
+	@GetMapping("/cursor")
+	public PageResponse<EbookResponse> listByCursor(
+			@RequestParam(name = "after", required = false)
+			@Min(1) Long after,
+			@RequestParam(name = "size", defaultValue = "10")
+			@Min(1) @Max(100) int size,
+			@RequestParam(name = "category", defaultValue = "ALL") String category,
+			@RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) {
+
+		Slice<Ebook> slice = ebookService.listActiveAfter(category, after, size);
+		List<Ebook> content = slice.getContent();
+
+		Long nextCursor = slice.hasNext() ? content.get(content.size() - 1).getId() : null;
+		long total = withTotal ? ebookService.countActive(category) : -1;
+
+		return PageResponse.ofCursor(
+				content.stream().map(EbookResponse::from).toList(),
+				size,
+				total,
+				nextCursor
+		);
+	}
+
 	/*
 	상세조회(상세페이지용)
 	GET /api/ebooks/{id}
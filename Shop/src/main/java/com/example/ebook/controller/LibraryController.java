@@ -0,0 +1,71 @@
+package com.example.ebook.controller;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.ebook.domain.UserRepository;
+import com.example.ebook.dto.LibraryItem;
+import com.example.ebook.dto.PageResponse;
+import com.example.ebook.entity.User;
+import com.example.ebook.service.EntitlementService;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/*
+ * 내 서재: 구매(이용권)한 이북
+ * 로그인 필요
+ */
+@RestController
+@RequestMapping("/library")
+@Validated
+public class LibraryController {
+
+	private final EntitlementService entitlementService;
+	private final UserRepository userRepository;
+
+	public LibraryController(EntitlementService entitlementService, UserRepository userRepository) {
+		this.entitlementService = entitlementService;
+		this.userRepository = userRepository;
+	}
+
+	//내 서재 목록(최근 구매순): GET /library?page=0&size=20
+	@GetMapping
+	public PageResponse<LibraryItem> list(Principal principal,
+										  @RequestParam(name = "page", defaultValue = "0") @Min(0) int page,
+										  @RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(100) int size) {
+		return entitlementService.library(getUserId(principal), page, size);
+	}
+
+	//소유한 이북 id 목록(오름차순): GET /library/ebook-ids
+	//목록 화면에서 "구매함" 표시용
+	@GetMapping("/ebook-ids")
+	public List<Long> ownedEbookIds(Principal principal) {
+		return entitlementService.ownedEbookIds(getUserId(principal)).stream()
+				.sorted()
+				.toList();
+	}
+
+	//---------내부 유틸-----------
+	//Principal에서 userId꺼내기(JWT는 userId, 소셜 로그인은 이메일)
+	private Long getUserId(Principal principal) {
+		if(principal == null) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "로그인이 필요합니다.");
+		}
+		try {
+			return Long.parseLong(principal.getName());
+		} catch(NumberFormatException e) {
+			User user = userRepository.findByEmail(principal.getName())
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "회원을 찾을 수 없습니다."));
+			return user.getId();
+		}
+	}
+}
@@ -19,10 +19,13 @@ import com.example.ebook.domain.UserRepository;
 import com.example.ebook.dto.CreatedOrderResponse;
 import com.example.ebook.dto.OrderDetail;
 import com.example.ebook.dto.OrderSummary;
+import com.example.ebook.dto.PageResponse;
 import com.example.ebook.entity.Order;
 import com.example.ebook.entity.User;
 import com.example.ebook.service.OrderService;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 
 /*
@@ -108,5 +111,16 @@ public class OrderController {
 		Long userId = getUserId(principal);
 		return orderService.getMyOrders(userId);
 	}
+
+	//주문 목록 페이지 조회(최신순, 커서): GET /orders/history?before=마지막id&size=20&withTotal=false
+	//응답의 nextCursor를 다음 요청의 before로 사용, 마지막 페이지면 null
+	@GetMapping("/history")
+	public PageResponse<OrderSummary> history(Principal principal,
+			@RequestParam(value = "before", required = false) Long before,
+			@RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) int size,
+			@RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+		Long userId = getUserId(principal);
+		return orderService.getMyOrderHistory(userId, before, size, withTotal);
+	}
 	
 }
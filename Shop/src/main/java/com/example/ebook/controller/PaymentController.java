@@ -1,13 +1,10 @@
 package com.example.ebook.controller;
 
 import java.io.IOException;
-import java.util.Base64;
 import java.util.Map;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,11 +12,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
-import com.example.ebook.domain.OrderRepository;
-import com.example.ebook.entity.Order;
 import com.example.ebook.service.OrderRefundService;
+import com.example.ebook.service.PaymentService;
 
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -27,74 +22,41 @@ import jakarta.servlet.http.HttpServletResponse;
 @RequestMapping("/payments")
 public class PaymentController {
 
-    private final OrderRepository orderRepository;
     private final OrderRefundService orderRefundService;
+    private final PaymentService paymentService;
 
-    //토스 시크릿 키
-    @Value("${toss.secret-key:test_sk_DpexMgkW36GvjwPwJNjEVGbR5ozO}")
-    private String tossSecretKey;
-
-    public PaymentController(OrderRepository orderRepository, OrderRefundService orderRefundService) {
-        this.orderRepository = orderRepository;
+    public PaymentController(OrderRefundService orderRefundService, PaymentService paymentService) {
         this.orderRefundService = orderRefundService;
+        this.paymentService = paymentService;
     }
 
+    //토스 승인 응답을 기다리는 동안 요청 스레드를 반납(비동기 응답)
+    //같은 주문/paymentKey 중복 요청은 PaymentService에서 한 번의 호출로 합쳐짐
     @PostMapping("/confirm")
-    public ResponseEntity<?> confirmPayment(@RequestBody Map<String, Object> payload) {
+    public CompletableFuture<ResponseEntity<?>> confirmPayment(@RequestBody Map<String, Object> payload) {
         String paymentKey = (String) payload.get("paymentKey");
         String orderId = (String) payload.get("orderId");
         Number amountNumber = (Number) payload.get("amount");
         Long amount = amountNumber.longValue();
 
-        RestTemplate restTemplate = new RestTemplate();
-        HttpHeaders headers = new HttpHeaders();
-
-        String encodedKey = Base64.getEncoder().encodeToString((tossSecretKey + ":").getBytes());
-        headers.set("Authorization", "Basic " + encodedKey);
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        Map<String, Object> tossRequest = Map.of(
-            "paymentKey", paymentKey,
-            "orderId", orderId,
-            "amount", amount
-        );
-
-        try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                "https://api.tosspayments.com/v1/payments/confirm",
-                new HttpEntity<>(tossRequest, headers),
-                Map.class);
-
-            if(response.getStatusCode() == HttpStatus.OK) {
-                //PENDING을 PAID로 바꿈
-                Order order = orderRepository.findByOrderNumber(orderId)
-                        .orElseThrow(() -> new RuntimeException("주문을 찾을 수 없습니다."));
-                
-                order.setStatus("PAID");
-                orderRepository.save(order);
-                
-                return ResponseEntity.ok().body(Map.of("message", "결제 성공"));
-            } else {
-                return ResponseEntity.status(400).body(Map.of("message", "결제 승인 실패"));
-            }
-        } catch(Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(400).body(Map.of("message", "토스 승인 중 오류: " + e.getMessage()));
-        }
+        return paymentService.confirm(paymentKey, orderId, amount)
+                .<ResponseEntity<?>>thenApply(result -> result.paid()
+                        ? ResponseEntity.ok().body(Map.of("message", result.message()))
+                        : ResponseEntity.status(400).body(Map.of("message", result.message())));
     }
 
     //결제 취소 API
+    //환불 처리는 작업 스레드에서(외부 호출 동안 요청 스레드/DB 커넥션을 잡지 않음)
     @PostMapping("/{orderId}/cancel")
-    public ResponseEntity<?> cancelPayment(@PathVariable("orderId") Long orderId, @RequestBody Map<String, String> payload) {
+    public CompletableFuture<ResponseEntity<?>> cancelPayment(@PathVariable("orderId") Long orderId, @RequestBody Map<String, String> payload) {
         String cancelReason = payload.getOrDefault("cancelReason", "단순 변심");    //프론트에서 사유 안보내면 기본값
 
-        try {
-            //트랜잭션 서비스 호출
-            orderRefundService.cancelAndRefundOrder(orderId, cancelReason);
-            return ResponseEntity.ok().body(Map.of("message", "결제 취소 및 토큰 만료가 완료되었습니다."));
-        } catch(Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(400).body(Map.of("message", "결제 취소 실패: " + e.getMessage()));
-        }
+        return orderRefundService.cancelAndRefundOrderAsync(orderId, cancelReason)
+                .<ResponseEntity<?>>thenApply(v -> ResponseEntity.ok().body(Map.of("message", "결제 취소 및 토큰 만료가 완료되었습니다.")))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    cause.printStackTrace();
+                    return ResponseEntity.status(400).body(Map.of("message", "결제 취소 실패: " + cause.getMessage()));
+                });
     }
 }
@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.ebook.entity.CartItem;
 
@@ -19,4 +22,13 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 	
 	//특정 장바구니 항목 조회
 	List<CartItem> findByCartId(Long cartId);
-}
\ No newline at end of file
+
+	//주문 전환용: 유저 장바구니 항목 + 장바구니 + 이북을 쿼리 한 번으로
+	@Query("select ci from CartItem ci join fetch ci.cart c join fetch ci.ebook where c.userId = :userId order by ci.id")
+	List<CartItem> findWithEbookByUserId(@Param("userId") Long userId);
+
+	//장바구니 항목 한 번에 삭제(엔티티 로딩 없이 DELETE 한 문장)
+	@Modifying
+	@Query("delete from CartItem ci where ci.cart.id = :cartId")
+	int bulkDeleteByCartId(@Param("cartId") Long cartId);
+}
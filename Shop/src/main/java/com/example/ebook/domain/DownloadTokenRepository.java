@@ -3,6 +3,9 @@ package com.example.ebook.domain;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.ebook.entity.DownloadToken;
 
@@ -18,9 +21,29 @@ public interface DownloadTokenRepository extends JpaRepository<DownloadToken, Lo
 	//한 유저가 특정 이북을 발급받은 토큰 이력(최근순 조회에 사용)
 	List<DownloadToken> findByUserIdAndEbookIdOrderByIdDesc(Long userId, Long ebookId);
 	
-	//필요시: 만료 토큰 정리용
-	long deleteByExpiresAtBefore(LocalDateTime time);
+	//필요시: 만료 토큰 정리용(엔티티 로딩 없이 DELETE 한 문장, 건수가 많으면 아래 구간 삭제 사용)
+	@Modifying
+	@Query("delete from DownloadToken t where t.expiresAt < :time")
+	int deleteByExpiresAtBefore(@Param("time") LocalDateTime time);
 
-	//특정 주무능로 발급된 토큰 목록 조회(환불시 토큰 무효화)
+	//만료 토큰 정리: PK 구간 [fromId, toId)씩 나눠서 삭제(한 번에 잠그는 행 수 제한)
+	@Modifying
+	@Query("delete from DownloadToken t where t.id >= :fromId and t.id < :toId and t.expiresAt < :time")
+	int deleteExpiredInIdRange(@Param("fromId") Long fromId,
+							   @Param("toId") Long toId,
+							   @Param("time") LocalDateTime time);
+
+	@Query("select min(t.id) from DownloadToken t")
+	Long findMinId();
+
+	@Query("select max(t.id) from DownloadToken t")
+	Long findMaxId();
+
+	//특정 주무능로 발급된 토큰 목록 조회
 	List<DownloadToken> findByOrderId(Long orderId);
+
+	//환불시 토큰 무효화: 주문의 아직 유효한 토큰을 UPDATE 한 문장으로 만료
+	@Modifying
+	@Query("update DownloadToken t set t.expiresAt = :now where t.orderId = :orderId and t.expiresAt > :now")
+	int expireAllByOrderId(@Param("orderId") Long orderId, @Param("now") LocalDateTime now);
 }
@@ -4,7 +4,12 @@ import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ebook.entity.Ebook;
 
@@ -29,4 +34,60 @@ public interface EbookRepository extends JpaRepository<Ebook, Long>{
 
     //상태 + 카테고리 + 검색어(제목) + 페이징 조회
     Page<Ebook> findByStatusAndCategoryAndTitleContainingIgnoreCase(String status, String category, String title, Pageable pageable);
+
+    //검색 색인 재구성용: 필요한 컬럼만 id 순으로 끊어 읽음(keyset, 엔티티 로딩 없음)
+    @Query("select e.id as id, e.title as title, e.author as author, e.category as category, e.status as status "
+    		+ "from Ebook e where e.id > :afterId order by e.id asc")
+    List<EbookIndexRow> findIndexRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    //색인용 projection
+    interface EbookIndexRow {
+    	Long getId();
+    	String getTitle();
+    	String getAuthor();
+    	String getCategory();
+    	String getStatus();
+    }
+
+    //키셋(커서) 페이징: after보다 작은 id를 내림차순으로(OFFSET 스캔 없음, Pageable은 limit 용도)
+    List<Ebook> findByStatusAndIdLessThanOrderByIdDesc(String status, Long id, Pageable pageable);
+
+    List<Ebook> findByStatusAndCategoryAndIdLessThanOrderByIdDesc(String status, String category, Long id, Pageable pageable);
+
+    //COUNT 없는 목록 조회(전체 수는 EbookCountCache에서)
+    Slice<Ebook> findSliceByStatus(String status, Pageable pageable);
+
+    Slice<Ebook> findSliceByStatusAndCategory(String status, String category, Pageable pageable);
+
+    Slice<Ebook> findSliceByStatusAndTitleContainingIgnoreCase(String status, String title, Pageable pageable);
+
+    Slice<Ebook> findSliceByStatusAndCategoryAndTitleContainingIgnoreCase(String status, String category, String title, Pageable pageable);
+
+    //(상태, 카테고리)별 건수: 카운트 캐시 보정용
+    @Query("select e.status as status, e.category as category, count(e) as cnt from Ebook e group by e.status, e.category")
+    List<StatusCategoryCount> countGroupByStatusAndCategory();
+
+    //썸네일 축소본 백필용(엔티티를 로딩하지 않고 필요한 컬럼만)
+    @Query("select e.id as id, e.category as category, e.thumbnailPath as thumbnailPath, e.thumbnailWidths as thumbnailWidths "
+    		+ "from Ebook e where e.thumbnailPath is not null order by e.thumbnailPath")
+    List<ThumbnailRow> findAllThumbnails();
+
+    //백필 후 실제로 있는 축소본 폭 기록(폭이 바뀐 이북만 호출)
+    @Transactional
+    @Modifying
+    @Query("update Ebook e set e.thumbnailWidths = :widths where e.id = :id")
+    int updateThumbnailWidths(@Param("id") Long id, @Param("widths") String widths);
+
+    interface ThumbnailRow {
+    	Long getId();
+    	String getCategory();
+    	String getThumbnailPath();
+    	String getThumbnailWidths();
+    }
+
+    interface StatusCategoryCount {
+    	String getStatus();
+    	String getCategory();
+    	long getCnt();
+    }
 }
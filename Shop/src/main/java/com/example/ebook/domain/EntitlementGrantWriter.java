@@ -0,0 +1,75 @@
+package com.example.ebook.domain;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/*
+ * 결제 완료 주문의 이용권 추가(INSERT ... SELECT, 이미 가진 책은 NOT EXISTS로 건너뜀)
+ * 같은 책을 담은 두 주문이 동시에 결제되면 둘 다 NOT EXISTS를 통과 -> 늦은 쪽이 uq_entitlement_user_ebook 위반
+ * 세이브포인트를 잡고 실행해서 위반이면 이 INSERT만 되돌리고 다시 실행(이번엔 먼저 커밋된 행을 보고 건너뜀)
+ * -> 호출한 트랜잭션(토스 승인 뒤 PAID 반영)은 롤백되지 않음
+ * JPA(Hibernate)는 세이브포인트를 지원하지 않아 JDBC로 같은 트랜잭션/커넥션에서 실행
+ */
+@Repository
+public class EntitlementGrantWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(EntitlementGrantWriter.class);
+	private static final int MAX_ATTEMPTS = 3;
+
+	private static final String GRANT_SQL =
+			"insert into entitlement (user_id, ebook_id, order_id, granted_at, title, author, thumbnail_path) "
+			+ "select distinct o.user_id, oi.ebook_id, o.id, ?, b.title, b.author, b.thumbnail_path "
+			+ "from order_item oi join orders o on o.id = oi.order_id join ebook b on b.id = oi.ebook_id "
+			+ "where o.id = ? and o.status = 'PAID' "
+			+ "and not exists (select 1 from entitlement e where e.user_id = o.user_id and e.ebook_id = oi.ebook_id)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public EntitlementGrantWriter(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	//주문 상태(PAID)는 먼저 flush 되어 있어야 함
+	public int grantForOrder(Long orderId, LocalDateTime now) {
+		Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+			for(int attempt = 1; ; attempt++) {
+				Savepoint savepoint = con.setSavepoint();
+				try {
+					int rows = insert(con, orderId, now);
+					con.releaseSavepoint(savepoint);
+					return rows;
+				} catch(SQLException e) {
+					con.rollback(savepoint);
+					if(!isConstraintViolation(e) || attempt >= MAX_ATTEMPTS) {
+						throw e;
+					}
+					log.info("entitlement grant for order {} raced with another order, retrying", orderId);
+				}
+			}
+		});
+		return inserted == null ? 0 : inserted;
+	}
+
+	private static int insert(Connection con, Long orderId, LocalDateTime now) throws SQLException {
+		try(PreparedStatement ps = con.prepareStatement(GRANT_SQL)) {
+			ps.setTimestamp(1, Timestamp.valueOf(now));
+			ps.setLong(2, orderId);
+			return ps.executeUpdate();
+		}
+	}
+
+	//SQLSTATE 23xxx: 무결성 제약 위반(MySQL 23000, H2/PostgreSQL 23505)
+	private static boolean isConstraintViolation(SQLException e) {
+		return e.getSQLState() != null && e.getSQLState().startsWith("23");
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.ebook.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.ebook.entity.Entitlement;
+
+/*
+ * 이용권 조회/반영
+ * 추가는 주문아이템에서 INSERT ... SELECT 한 문장(이미 가진 책은 NOT EXISTS로 건너뜀 -> 여러 번 실행해도 안전)
+ * 결제 완료 시 주문 한 건 추가는 EntitlementGrantWriter(동시 결제 충돌 처리)
+ * 이북 제목/저자/썸네일은 추가 시점에 같이 복사(내 서재 목록용)
+ */
+public interface EntitlementRepository extends JpaRepository<Entitlement, Long> {
+
+	//소유 여부 + 이용권을 준 주문(캐시 적재용)
+	interface OwnedRow {
+		Long getEbookId();
+		Long getOrderId();
+	}
+
+	@Query("select e.ebookId as ebookId, e.orderId as orderId from Entitlement e where e.userId = :userId")
+	List<OwnedRow> findOwnedByUserId(@Param("userId") Long userId);
+
+	//캐시에 없을 때 확인용: (user_id, ebook_id) 유니크 인덱스 한 행
+	@Query("select e.orderId from Entitlement e where e.userId = :userId and e.ebookId = :ebookId")
+	Optional<Long> findOrderIdByUserIdAndEbookId(@Param("userId") Long userId, @Param("ebookId") Long ebookId);
+
+	//내 서재 목록: (user_id, id) 인덱스 범위 조회, 전체 수는 소유 목록 캐시에서
+	List<Entitlement> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+	//한 사용자의 PAID 주문 전체로 다시 채움(환불 후 다른 주문으로 가진 책 복구)
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value =
+			"insert into entitlement (user_id, ebook_id, order_id, granted_at, title, author, thumbnail_path) "
+			+ "select o.user_id, oi.ebook_id, min(o.id), :now, b.title, b.author, b.thumbnail_path "
+			+ "from order_item oi join orders o on o.id = oi.order_id join ebook b on b.id = oi.ebook_id "
+			+ "where o.user_id = :userId and o.status = 'PAID' "
+			+ "and not exists (select 1 from entitlement e where e.user_id = o.user_id and e.ebook_id = oi.ebook_id) "
+			+ "group by o.user_id, oi.ebook_id, b.title, b.author, b.thumbnail_path")
+	int grantForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+	//전체 백필(테이블 도입 전 결제분)
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value =
+			"insert into entitlement (user_id, ebook_id, order_id, granted_at, title, author, thumbnail_path) "
+			+ "select o.user_id, oi.ebook_id, min(o.id), :now, b.title, b.author, b.thumbnail_path "
+			+ "from order_item oi join orders o on o.id = oi.order_id join ebook b on b.id = oi.ebook_id "
+			+ "where o.status = 'PAID' "
+			+ "and not exists (select 1 from entitlement e where e.user_id = o.user_id and e.ebook_id = oi.ebook_id) "
+			+ "group by o.user_id, oi.ebook_id, b.title, b.author, b.thumbnail_path")
+	int grantAllPaid(@Param("now") LocalDateTime now);
+
+	//이북 정보 수정 시 사본 갱신
+	@Modifying
+	@Query("update Entitlement e set e.title = :title, e.author = :author, e.thumbnailPath = :thumbnailPath where e.ebookId = :ebookId")
+	int updateEbookSnapshot(@Param("ebookId") Long ebookId,
+							@Param("title") String title,
+							@Param("author") String author,
+							@Param("thumbnailPath") String thumbnailPath);
+
+	//사본 컬럼 도입 전에 만들어진 행 채우기
+	@Modifying
+	@Query(nativeQuery = true, value =
+			"update entitlement set "
+			+ "title = (select b.title from ebook b where b.id = entitlement.ebook_id), "
+			+ "author = (select b.author from ebook b where b.id = entitlement.ebook_id), "
+			+ "thumbnail_path = (select b.thumbnail_path from ebook b where b.id = entitlement.ebook_id) "
+			+ "where title is null")
+	int fillMissingSnapshots();
+
+	//환불: 해당 주문이 준 이용권 삭제
+	@Modifying(flushAutomatically = true)
+	@Query("delete from Entitlement e where e.orderId = :orderId")
+	int deleteByOrderId(@Param("orderId") Long orderId);
+}
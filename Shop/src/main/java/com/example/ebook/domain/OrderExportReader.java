@@ -0,0 +1,119 @@
+package com.example.ebook.domain;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/*
+ * 주문 내보내기용 읽기
+ * 주문 + 아이템을 쿼리 한 번으로, 결과를 리스트에 모으지 않고 한 줄씩 콜백으로 넘김
+ * forward-only 커서 + fetch size: 드라이버가 fetch size만큼씩 가져옴 -> 주문 수와 무관하게 메모리 일정
+ * MySQL Connector/J는 URL에 useCursorFetch=true가 없으면 양수 fetch size를 무시하고 결과 전체를 메모리에 올림
+ * -> 그 경우 Integer.MIN_VALUE(한 줄씩 스트리밍)로 바꿔서 실행
+ */
+@Repository
+public class OrderExportReader {
+
+	//주문 아이템 한 줄(아이템 없는 주문은 아이템 필드가 null)
+	public record ExportRow(long orderId, String orderNumber, long userId, String status,
+							BigDecimal totalAmount, BigDecimal finalAmount, LocalDateTime createdAt, LocalDateTime paidAt,
+							Long ebookId, String title, BigDecimal price, Integer quantity, BigDecimal subTotal) {}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final int fetchSize;
+
+	public OrderExportReader(JdbcTemplate jdbcTemplate, @Value("${ebook.admin.export-fetch-size:1000}") int fetchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.fetchSize = fetchSize;
+	}
+
+	//조건에 맞는 주문 아이템을 (주문 id, 아이템 id) 순서로 전달, 전달한 줄 수 반환
+	public long forEach(String status, LocalDateTime from, LocalDateTime to, Consumer<ExportRow> consumer) {
+		StringBuilder sql = new StringBuilder(
+				"select o.id, o.order_number, o.user_id, o.status, o.total_amount, o.final_amount, o.created_at, o.paid_at, "
+				+ "oi.ebook_id, oi.title_snap, oi.price_snap, oi.quantity, oi.sub_total "
+				+ "from orders o left join order_item oi on oi.order_id = o.id where 1 = 1");
+		List<Object> args = new ArrayList<>();
+		if(status != null) {
+			sql.append(" and o.status = ?");
+			args.add(status);
+		}
+		if(from != null) {
+			sql.append(" and o.created_at >= ?");
+			args.add(Timestamp.valueOf(from));
+		}
+		if(to != null) {
+			sql.append(" and o.created_at < ?");
+			args.add(Timestamp.valueOf(to));
+		}
+		sql.append(" order by o.id, oi.id");
+
+		long[] count = {0};
+		jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize(con));
+			for(int i = 0; i < args.size(); i++) {
+				ps.setObject(i + 1, args.get(i));
+			}
+			return ps;
+		}, (RowCallbackHandler) rs -> {
+			consumer.accept(map(rs));
+			count[0]++;
+		});
+		return count[0];
+	}
+
+	//---------내부 유틸-----------
+	private int fetchSize(Connection con) throws SQLException {
+		DatabaseMetaData meta = con.getMetaData();
+		return effectiveFetchSize(fetchSize, meta.getDatabaseProductName(), meta.getURL());
+	}
+
+	//MySQL이고 커서 fetch가 꺼져 있으면 스트리밍 모드, 그 외에는 설정값 그대로
+	static int effectiveFetchSize(int configured, String productName, String url) {
+		boolean mysql = productName != null && productName.toLowerCase(Locale.ROOT).contains("mysql");
+		boolean cursorFetch = url != null && url.toLowerCase(Locale.ROOT).contains("usecursorfetch=true");
+		if(mysql && configured > 0 && !cursorFetch) {
+			return Integer.MIN_VALUE;
+		}
+		return configured;
+	}
+
+	private static ExportRow map(ResultSet rs) throws SQLException {
+		long ebookId = rs.getLong(9);
+		boolean hasItem = !rs.wasNull();
+		int quantity = rs.getInt(12);
+		return new ExportRow(
+				rs.getLong(1),
+				rs.getString(2),
+				rs.getLong(3),
+				rs.getString(4),
+				rs.getBigDecimal(5),
+				rs.getBigDecimal(6),
+				toLocalDateTime(rs.getTimestamp(7)),
+				toLocalDateTime(rs.getTimestamp(8)),
+				hasItem ? ebookId : null,
+				rs.getString(10),
+				rs.getBigDecimal(11),
+				hasItem ? quantity : null,
+				rs.getBigDecimal(13));
+	}
+
+	private static LocalDateTime toLocalDateTime(Timestamp ts) {
+		return ts == null ? null : ts.toLocalDateTime();
+	}
+}
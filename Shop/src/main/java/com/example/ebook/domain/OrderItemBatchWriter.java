@@ -0,0 +1,38 @@
+package com.example.ebook.domain;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.ebook.entity.OrderItem;
+
+/*
+ * 주문 아이템 일괄 저장
+ * OrderItem은 IDENTITY 키라 JPA로는 건마다 INSERT -> JDBC 배치로 한 번에 보냄
+ * (같은 트랜잭션/커넥션 사용, MySQL은 rewriteBatchedStatements=true면 다중 VALUES로 묶임)
+ */
+@Repository
+public class OrderItemBatchWriter {
+
+	private static final String INSERT_SQL =
+			"insert into order_item (order_id, ebook_id, title_snap, price_snap, quantity, sub_total) values (?, ?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public OrderItemBatchWriter(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	//주문 헤더는 먼저 저장되어 id가 있어야 함
+	public void insertAll(Long orderId, List<OrderItem> items) {
+		jdbcTemplate.batchUpdate(INSERT_SQL, items, items.size(), (ps, oi) -> {
+			ps.setLong(1, orderId);
+			ps.setLong(2, oi.getEbook().getId());
+			ps.setString(3, oi.getTitleSnap());
+			ps.setBigDecimal(4, oi.getPriceSnap());
+			ps.setInt(5, oi.getQuantity());
+			ps.setBigDecimal(6, oi.getSubTotal());
+		});
+	}
+}
@@ -1,8 +1,12 @@
 package com.example.ebook.domain;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.ebook.entity.OrderItem;
 
@@ -10,4 +14,21 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long>{
 	
 	//orderId로 찾아 List에 담아정렬ㄴ
 	List<OrderItem> findByOrder_Id(Long orderId);
+
+	//주문에 이 이북이 있는지(아이템 엔티티를 로딩하지 않고 order_id 인덱스 범위에서 확인)
+	boolean existsByOrder_IdAndEbook_Id(Long orderId, Long ebookId);
+
+	//여러 주문의 아이템을 한 번에(주문마다 LAZY 로딩 하지 않도록), ebook은 FK 값만 읽고 조인하지 않음
+	interface OrderLineRow {
+		Long getOrderId();
+		Long getEbookId();
+		String getTitleSnap();
+		BigDecimal getPriceSnap();
+		int getQuantity();
+		BigDecimal getSubTotal();
+	}
+
+	@Query("SELECT oi.order.id AS orderId, oi.ebook.id AS ebookId, oi.titleSnap AS titleSnap, oi.priceSnap AS priceSnap, "
+			+ "oi.quantity AS quantity, oi.subTotal AS subTotal FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+	List<OrderLineRow> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
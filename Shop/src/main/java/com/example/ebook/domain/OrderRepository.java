@@ -1,8 +1,13 @@
 package com.example.ebook.domain;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +15,18 @@ import org.springframework.data.repository.query.Param;
 import com.example.ebook.entity.Order;
 
 public interface OrderRepository extends JpaRepository<Order, Long>{
+
+	//주문 목록 한 줄(엔티티 대신 필요한 값만): 첫 상품명/상품 수는 SQL 서브쿼리로 계산
+	interface OrderHistoryRow {
+		Long getId();
+		String getOrderNumber();
+		String getStatus();
+		BigDecimal getTotalAmount();
+		BigDecimal getFinalAmount();
+		LocalDateTime getCreatedAt();
+		String getFirstTitle();
+		Long getItemCount();
+	}
 	
 	//Optional로 Order에 주문번호가 있는지 없느지 판단
 	Optional<Order> findByOrderNumber(String orderNumber);
@@ -23,6 +40,32 @@ public interface OrderRepository extends JpaRepository<Order, Long>{
 
 	Optional<Order> findTopByUserIdAndStatusOrderByIdDesc(Long userId, String status);
 
+	//내 주문 목록: id < before 인 주문을 최신순으로(키셋), idx_orders_user 범위 조회
+	//주문/아이템 엔티티를 만들지 않아서 주문 수가 많아도 메모리 사용량 일정
+	@Query("SELECT o.id AS id, o.orderNumber AS orderNumber, o.status AS status, "
+			+ "o.totalAmount AS totalAmount, o.finalAmount AS finalAmount, o.createdAt AS createdAt, "
+			+ "(SELECT oi.titleSnap FROM OrderItem oi WHERE oi.id = "
+			+ "(SELECT MIN(oi2.id) FROM OrderItem oi2 WHERE oi2.order = o)) AS firstTitle, "
+			+ "(SELECT COUNT(oi3) FROM OrderItem oi3 WHERE oi3.order = o) AS itemCount "
+			+ "FROM Order o WHERE o.userId = :userId AND o.id < :before ORDER BY o.id DESC")
+	List<OrderHistoryRow> findHistoryByUserId(@Param("userId") Long userId,
+											  @Param("before") Long before,
+											  Pageable pageable);
+
+	long countByUserId(Long userId);
+
+	//관리자 최근 주문(COUNT 쿼리 없이 limit만)
+	List<Order> findAllByOrderByIdDesc(Pageable pageable);
+
+	//관리자 주문 검색(조건은 null이면 무시), 최신순
+	@Query(value = "SELECT o FROM Order o WHERE (:status IS NULL OR o.status = :status) "
+			+ "AND (:userId IS NULL OR o.userId = :userId) ORDER BY o.id DESC",
+			countQuery = "SELECT COUNT(o) FROM Order o WHERE (:status IS NULL OR o.status = :status) "
+			+ "AND (:userId IS NULL OR o.userId = :userId)")
+	Page<Order> searchForAdmin(@Param("status") String status,
+							   @Param("userId") Long userId,
+							   Pageable pageable);
+
 	@Query("SELECT o FROM Order o " +
 			"JOIN OrderItem oi ON oi.order = o " +
 			"WHERE o.userId = :userId " +
@@ -0,0 +1,41 @@
+package com.example.ebook.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.ebook.entity.RefundRequest;
+
+//환불 아웃박스: 상태 변경은 엔티티 로딩 없이 UPDATE 한 문장으로
+public interface RefundRequestRepository extends JpaRepository<RefundRequest, Long> {
+
+	//재시도 대상(시각 도래한 PENDING), 오래된 것부터
+	List<RefundRequest> findByStatusAndNextAttemptAtBeforeOrderByIdAsc(String status, LocalDateTime now, Pageable pageable);
+
+	//처리 선점: 다른 스레드/노드가 먼저 가져갔으면 0
+	@Modifying
+	@Query("update RefundRequest r set r.nextAttemptAt = :leaseUntil where r.id = :id "
+			+ "and r.status = 'PENDING' and r.nextAttemptAt = :expected")
+	int claim(@Param("id") Long id,
+			  @Param("expected") LocalDateTime expected,
+			  @Param("leaseUntil") LocalDateTime leaseUntil);
+
+	@Modifying
+	@Query("update RefundRequest r set r.status = 'DONE', r.attempts = r.attempts + 1, r.lastError = null, "
+			+ "r.updatedAt = CURRENT_TIMESTAMP where r.id = :id")
+	int markDone(@Param("id") Long id);
+
+	//실패 기록: status는 PENDING(재시도 예약) 또는 FAILED
+	@Modifying
+	@Query("update RefundRequest r set r.status = :status, r.attempts = r.attempts + 1, r.lastError = :error, "
+			+ "r.nextAttemptAt = :nextAttemptAt, r.updatedAt = CURRENT_TIMESTAMP where r.id = :id")
+	int markAttemptFailed(@Param("id") Long id,
+						  @Param("status") String status,
+						  @Param("error") String error,
+						  @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
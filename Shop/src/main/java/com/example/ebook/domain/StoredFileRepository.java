@@ -0,0 +1,44 @@
+package com.example.ebook.domain;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.ebook.entity.StoredFile;
+
+import jakarta.persistence.LockModeType;
+
+//내용 주소 저장 파일: 참조 수 변경은 엔티티 로딩 없이 UPDATE 한 문장으로
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+
+	Optional<StoredFile> findByContentHash(String contentHash);
+
+	Optional<StoredFile> findByPath(String path);
+
+	//업로드/해제 판단 전에 행 잠금(SELECT ... FOR UPDATE): 서버가 여러 대여도 같은 내용은 DB가 한 번에 하나씩 처리
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select f from StoredFile f where f.contentHash = :hash")
+	Optional<StoredFile> findByContentHashForUpdate(@Param("hash") String hash);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select f from StoredFile f where f.path = :path")
+	Optional<StoredFile> findByPathForUpdate(@Param("path") String path);
+
+	//이미 있는 내용이면 참조 +1, 없으면 0
+	@Modifying(clearAutomatically = true)
+	@Query("update StoredFile f set f.refCount = f.refCount + 1 where f.contentHash = :hash")
+	int incrementRef(@Param("hash") String hash);
+
+	@Modifying(clearAutomatically = true)
+	@Query("update StoredFile f set f.refCount = f.refCount - 1 where f.path = :path and f.refCount > 0")
+	int decrementRef(@Param("path") String path);
+
+	//더 이상 참조하는 이북이 없으면 행 삭제, 삭제했으면 1
+	@Modifying(clearAutomatically = true)
+	@Query("delete from StoredFile f where f.path = :path and f.refCount = 0")
+	int deleteUnreferenced(@Param("path") String path);
+}
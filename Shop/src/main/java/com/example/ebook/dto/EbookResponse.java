@@ -1,7 +1,10 @@
 package com.example.ebook.dto;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import com.example.ebook.common.FileStore;
 import com.example.ebook.entity.Ebook;
 
 /** 이북 응답 DTO (컨트롤러 밖, public top-level) */
@@ -12,6 +15,7 @@ public class EbookResponse {
     public BigDecimal price;
     public String category;
     public String thumbnail;
+    public Map<Integer, String> thumbnailVariants;  // 폭(px) -> 축소본 파일명, 목록 카드는 원본 대신 이걸 사용
     public String status;
 
     public static EbookResponse from(Ebook e) {
@@ -21,8 +25,22 @@ public class EbookResponse {
         r.author = e.getAuthor();
         r.price = e.getPrice();
         r.thumbnail = e.getThumbnailPath();
+        r.thumbnailVariants = variants(e.getThumbnailPath(), e.getThumbnailWidths());
         r.category = e.getCategory();
         r.status = e.getStatus();
         return r;
     }
+
+    //업로드/백필 때 기록된 폭만(축소본을 못 만든 이미지는 빈 맵 -> thumbnail 원본 사용)
+    private static Map<Integer, String> variants(String thumbnail, String widths) {
+        if(thumbnail == null || thumbnail.isBlank() || widths == null || widths.isBlank()) {
+            return Map.of();
+        }
+        Map<Integer, String> variants = new LinkedHashMap<>();
+        for(String width : widths.split(",")) {
+            int w = Integer.parseInt(width.trim());
+            variants.put(w, FileStore.variantName(thumbnail, w));
+        }
+        return variants;
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.ebook.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.ebook.entity.Entitlement;
+
+/*
+ * 내 서재 목록 한 줄
+ * orderId: 다운로드 토큰 발급 때 사용
+ */
+public record LibraryItem(
+    Long ebookId,
+    String title,
+    String author,
+    String thumbnail,
+    Long orderId,
+    LocalDateTime purchasedAt
+) {
+    public static LibraryItem from(Entitlement e) {
+        return new LibraryItem(e.getEbookId(), e.getTitle(), e.getAuthor(), e.getThumbnailPath(), e.getOrderId(), e.getGrantedAt());
+    }
+}
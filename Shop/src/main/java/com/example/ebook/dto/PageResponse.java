@@ -8,6 +8,7 @@ public class PageResponse<T> {
     public int page;
     public int size;
     public long total;
+    public Long nextCursor;   // 커서(키셋) 페이징일 때 다음 요청의 after 값, 마지막 페이지면 null
 
     public PageResponse(List<T> items, int page, int size, long total) {
         this.items = items; this.page = page; this.size = size; this.total = total;
@@ -15,4 +16,10 @@ public class PageResponse<T> {
     public static <T> PageResponse<T> of(List<T> items, int page, int size, long total) {
         return new PageResponse<>(items, page, size, total);
     }
+    /** 커서 페이징 응답: page는 0 고정, total을 세지 않았으면 -1 */
+    public static <T> PageResponse<T> ofCursor(List<T> items, int size, long total, Long nextCursor) {
+        PageResponse<T> res = new PageResponse<>(items, 0, size, total);
+        res.nextCursor = nextCursor;
+        return res;
+    }
 }
\ No newline at end of file
@@ -17,7 +17,8 @@ import jakarta.persistence.Table;
 @Entity
 @Table(name = "ebook",
 		indexes = {
-			@Index(name = "idx_ebook_status", columnList = "status")
+			@Index(name = "idx_ebook_status", columnList = "status"),
+			@Index(name = "idx_ebook_status_category_id", columnList = "status, category, id")	//카테고리별 키셋 페이징
 		})
 public class Ebook {
 
@@ -43,6 +44,10 @@ public class Ebook {
     @Column(name = "thumbnail_path", length = 500)
     private String thumbnailPath;
 
+    //실제로 만들어진 썸네일 축소본 폭 목록(예: "160,320,640"), 없으면 null -> 원본만 사용
+    @Column(name = "thumbnail_widths", length = 50)
+    private String thumbnailWidths;
+
     //다운로드 파일 경로
     @Column(name = "file_path")
     private String filePath;
@@ -78,6 +83,9 @@ public class Ebook {
     public String getThumbnailPath() { return thumbnailPath; }
     public void setThumbnailPath(String thumbnailPath) { this.thumbnailPath = thumbnailPath; }
 
+    public String getThumbnailWidths() { return thumbnailWidths; }
+    public void setThumbnailWidths(String thumbnailWidths) { this.thumbnailWidths = thumbnailWidths; }
+
     public String getFilePath() {return filePath;}
     public void setFilePath(String filePath) {this.filePath = filePath;}
 
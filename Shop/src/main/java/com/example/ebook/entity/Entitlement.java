@@ -0,0 +1,75 @@
+package com.example.ebook.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/*
+ * 이용권(구매한 이북 소유 정보)
+ * 주문/주문아이템 조인 없이 "이 책을 가졌는지"를 유니크 인덱스 한 번으로 확인하기 위한 비정규화 테이블
+ * 주문이 PAID가 될 때 추가, 환불되면 삭제
+ * orderId: 이 이용권을 준 주문(다운로드 토큰에 사용)
+ * title/author/thumbnailPath: 내 서재 목록용 이북 정보 사본(이북 수정 시 같이 갱신) -> 목록 조회에 조인 없음
+ */
+@Entity
+@Table(name = "entitlement",
+		uniqueConstraints = {
+			@UniqueConstraint(name = "uq_entitlement_user_ebook", columnNames = {"user_id", "ebook_id"})
+		},
+		indexes = {
+			@Index(name = "idx_entitlement_order", columnList = "order_id"),
+			@Index(name = "idx_entitlement_user_id", columnList = "user_id, id"),
+			@Index(name = "idx_entitlement_ebook", columnList = "ebook_id")
+		})
+public class Entitlement {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+
+	@Column(name = "ebook_id", nullable = false)
+	private Long ebookId;
+
+	@Column(name = "order_id", nullable = false)
+	private Long orderId;
+
+	@Column(name = "granted_at", nullable = false)
+	private LocalDateTime grantedAt;
+
+	@Column(length = 255)
+	private String title;
+
+	@Column(length = 255)
+	private String author;
+
+	@Column(name = "thumbnail_path", length = 500)
+	private String thumbnailPath;
+
+	public Entitlement() {}	//JPA 기본 생성자
+
+	public Entitlement(Long userId, Long ebookId, Long orderId, LocalDateTime grantedAt) {
+		this.userId = userId;
+		this.ebookId = ebookId;
+		this.orderId = orderId;
+		this.grantedAt = grantedAt;
+	}
+
+	public Long getId() { return id; }
+	public Long getUserId() { return userId; }
+	public Long getEbookId() { return ebookId; }
+	public Long getOrderId() { return orderId; }
+	public LocalDateTime getGrantedAt() { return grantedAt; }
+	public String getTitle() { return title; }
+	public String getAuthor() { return author; }
+	public String getThumbnailPath() { return thumbnailPath; }
+}
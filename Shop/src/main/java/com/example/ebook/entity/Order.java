@@ -23,7 +23,7 @@ import lombok.Builder;
 
 /*
  * 주문 
- * status: PENDING/PAID/CANCELLED/REFUNDED
+ * status: PENDING/PAID/REFUND_REQUESTED/CANCELLED/REFUNDED
  * 금액은 BigDecimal
  */
 @Entity
@@ -57,6 +57,16 @@ public class Order {
 	@Column(name = "paid_at")
 	private LocalDateTime paidAt;
 	
+	//토스 승인 응답에서 저장: 취소 때 paymentKey 조회 호출 생략
+	@Column(name = "payment_key", length = 200)
+	private String paymentKey;
+	
+	@Column(name = "payment_method", length = 50)
+	private String paymentMethod;
+	
+	@Column(name = "approved_amount", precision = 12, scale = 2)
+	private BigDecimal approvedAmount;
+	
 	@Column(name = "canceled_at")
 	private LocalDateTime canceledAt;
 	
@@ -107,6 +117,15 @@ public class Order {
 	public LocalDateTime getPaidAt() { return paidAt; }
 	public void setPaidAt(LocalDateTime paidAt) { this.paidAt = paidAt; }
 	
+	public String getPaymentKey() { return paymentKey; }
+	public void setPaymentKey(String paymentKey) { this.paymentKey = paymentKey; }
+	
+	public String getPaymentMethod() { return paymentMethod; }
+	public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+	
+	public BigDecimal getApprovedAmount() { return approvedAmount; }
+	public void setApprovedAmount(BigDecimal approvedAmount) { this.approvedAmount = approvedAmount; }
+	
 	public LocalDateTime getCanceledAt() { return canceledAt; }
 	public void setCanceledAt(LocalDateTime canceledAt) { this.canceledAt = canceledAt; }
 	
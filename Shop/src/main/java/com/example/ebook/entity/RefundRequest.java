@@ -0,0 +1,91 @@
+package com.example.ebook.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/*
+ * 환불 요청 아웃박스
+ * 주문을 REFUND_REQUESTED로 바꾸는 트랜잭션에서 같이 저장하고,
+ * 토스 취소 호출(트랜잭션 밖)이 실패하면 여기 남은 기록으로 재시도
+ * status: PENDING(처리 대기/재시도) / DONE / FAILED(재시도 불가 또는 횟수 초과)
+ */
+@Entity
+@Table(name = "refund_request",
+		indexes = {
+			@Index(name = "idx_refund_status_next", columnList = "status, next_attempt_at"),
+			@Index(name = "idx_refund_order", columnList = "order_id")
+		})
+public class RefundRequest {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "order_id", nullable = false)
+	private Long orderId;
+
+	//토스 조회용 주문번호(스냅샷)
+	@Column(name = "order_number", nullable = false, length = 50)
+	private String orderNumber;
+
+	//토스 결제 키(승인 때 저장된 값, 이전 주문은 null -> 주문번호로 조회)
+	@Column(name = "payment_key", length = 200)
+	private String paymentKey;
+
+	@Column(name = "cancel_reason", length = 200)
+	private String cancelReason;
+
+	@Column(nullable = false, length = 20)
+	private String status;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(name = "next_attempt_at", nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	@Column(name = "last_error", length = 500)
+	private String lastError;
+
+	@CreationTimestamp
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	@UpdateTimestamp
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	//--------생성자-----------
+	protected RefundRequest() {}
+	//nextAttemptAt: 첫 시도가 진행 중인 동안 재시도 작업이 가져가지 않도록 잡아두는 시각
+	public RefundRequest(Long orderId, String orderNumber, String paymentKey, String cancelReason, LocalDateTime nextAttemptAt) {
+		this.orderId = orderId;
+		this.orderNumber = orderNumber;
+		this.paymentKey = paymentKey;
+		this.cancelReason = cancelReason;
+		this.status = "PENDING";
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	//--------------getter--------------
+	public Long getId() {return id;}
+	public Long getOrderId() {return orderId;}
+	public String getOrderNumber() {return orderNumber;}
+	public String getPaymentKey() { return paymentKey; }
+	public String getCancelReason() {return cancelReason;}
+	public String getStatus() {return status;}
+	public int getAttempts() {return attempts;}
+	public LocalDateTime getNextAttemptAt() {return nextAttemptAt;}
+	public String getLastError() {return lastError;}
+	public LocalDateTime getCreatedAt() {return createdAt;}
+}
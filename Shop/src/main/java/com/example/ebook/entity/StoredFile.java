@@ -0,0 +1,62 @@
+package com.example.ebook.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/*
+ * 내용 주소 저장 파일(이북 본문)
+ * 같은 내용(SHA-256)은 디스크에 한 번만 저장하고, 참조하는 이북 수를 refCount로 관리
+ * refCount가 0이 되면 행과 실제 파일 삭제
+ * path: 저장 경로 기준 상대 경로(objects/ab/cd/{hash}), Ebook.filePath에 그대로 들어감
+ */
+@Entity
+@Table(name = "stored_file",
+		uniqueConstraints = {
+			@UniqueConstraint(name = "uq_stored_file_hash", columnNames = "content_hash"),
+			@UniqueConstraint(name = "uq_stored_file_path", columnNames = "path")
+		})
+public class StoredFile {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "content_hash", nullable = false, length = 64)
+	private String contentHash;
+
+	@Column(nullable = false, length = 200)
+	private String path;
+
+	@Column(nullable = false)
+	private long size;
+
+	@Column(name = "ref_count", nullable = false)
+	private int refCount;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	public StoredFile() {}	//JPA 기본 생성자
+
+	public StoredFile(String contentHash, String path, long size) {
+		this.contentHash = contentHash;
+		this.path = path;
+		this.size = size;
+		this.refCount = 1;
+		this.createdAt = LocalDateTime.now();
+	}
+
+	public Long getId() { return id; }
+	public String getContentHash() { return contentHash; }
+	public String getPath() { return path; }
+	public long getSize() { return size; }
+	public int getRefCount() { return refCount; }
+	public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -1,55 +1,210 @@
 package com.example.ebook.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ebook.domain.OrderExportReader;
+import com.example.ebook.domain.OrderExportReader.ExportRow;
+import com.example.ebook.domain.OrderItemRepository;
+import com.example.ebook.domain.OrderItemRepository.OrderLineRow;
 import com.example.ebook.domain.OrderRepository;
 import com.example.ebook.dto.OrderDetail;
 import com.example.ebook.dto.OrderLine;
+import com.example.ebook.dto.PageResponse;
 import com.example.ebook.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 @Transactional(readOnly = true)
 public class AdminOrderService {
 
+    //IN 절 하나에 넣을 주문 id 수
+    private static final int ITEM_CHUNK = 1000;
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderExportReader exportReader;
+    private final ObjectMapper objectMapper;
 
-    public AdminOrderService(OrderRepository orderRepository) {
+    public AdminOrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                             OrderExportReader exportReader, ObjectMapper objectMapper) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.exportReader = exportReader;
+        this.objectMapper = objectMapper;
+    }
+
+    //기존 화면용 목록: 테이블 전체가 아니라 최근 limit건만(그 이전은 /admin/orders/page)
+    //아이템은 주문마다 LAZY 로딩하지 않고 IN 쿼리로 묶어서
+    @Deprecated
+    public List<OrderDetail> getRecentOrdersForAdmin(int limit) {
+        List<Order> orders = orderRepository.findAllByOrderByIdDesc(PageRequest.of(0, limit));
+        return toDetails(orders);
+    }
+
+    //페이지 조회: 주문 한 페이지 + 그 페이지 아이템 쿼리 한 번
+    public PageResponse<OrderDetail> searchOrders(String status, Long userId, int page, int size) {
+        Page<Order> result = orderRepository.searchForAdmin(status, userId, PageRequest.of(page, size));
+        return PageResponse.of(toDetails(result.getContent()), page, size, result.getTotalElements());
+    }
+
+    //CSV 내보내기: 주문 아이템 한 줄 = 한 행, 엑셀에서 한글 깨지지 않게 BOM
+    //JDBC 커서로 읽으면서 바로 쓰기 때문에 전체 결과를 메모리에 올리지 않음
+    public long exportCsv(String status, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            writer.write('\uFEFF');
+            writer.write("orderId,orderNumber,userId,status,totalAmount,finalAmount,createdAt,paidAt,ebookId,title,price,quantity,subTotal\n");
+            long rows = exportReader.forEach(status, from, to, row -> writeCsvRow(writer, row));
+            writer.flush();
+            return rows;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //NDJSON 내보내기: 주문 하나 = JSON 한 줄(아이템은 배열로)
+    //조회 결과가 주문 id 순이라 id가 바뀔 때마다 앞 주문을 내보냄
+    public long exportNdjson(String status, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        NdjsonGrouper grouper = new NdjsonGrouper(writer);
+        try {
+            exportReader.forEach(status, from, to, grouper::accept);
+            grouper.flushCurrent();
+            writer.flush();
+            return grouper.orders;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    public List<OrderDetail> getAllOrdersForAdmin() {
-        //DB에서 일단 Order엔티티들을 다 가져옴
-        List<Order> orders = orderRepository.findAll();
+    //---------내부 유틸-----------
+    private List<OrderDetail> toDetails(List<Order> orders) {
+        Map<Long, List<OrderLine>> linesByOrder = new HashMap<>();
+        List<Long> ids = orders.stream().map(Order::getId).collect(Collectors.toList());
+        for(int i = 0; i < ids.size(); i += ITEM_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(i + ITEM_CHUNK, ids.size()));
+            for(OrderLineRow row : orderItemRepository.findLinesByOrderIds(chunk)) {
+                linesByOrder.computeIfAbsent(row.getOrderId(), k -> new ArrayList<>())
+                        .add(new OrderLine(row.getEbookId(), row.getTitleSnap(), row.getPriceSnap(), row.getQuantity(), row.getSubTotal()));
+            }
+        }
 
-        //세션이 살아있는 상태에서 Order엔티티를 OrderDetail DTO로 변환
         return orders.stream()
-                .map(this::convertToOrderDetail)
+                .map(order -> new OrderDetail(
+                        order.getId(),
+                        order.getOrderNumber(),
+                        order.getStatus(),
+                        order.getTotalAmount(),
+                        order.getFinalAmount(),
+                        order.getCreatedAt(),
+                        linesByOrder.getOrDefault(order.getId(), List.of())
+                ))
                 .collect(Collectors.toList());
     }
 
-    private OrderDetail convertToOrderDetail(Order order) {
-        List<OrderLine> orderLines = order.getItems().stream()
-                .map(item -> new OrderLine(
-                        item.getEbook().getId(),
-                        item.getTitleSnap(),
-                        item.getPriceSnap(),
-                        item.getQuantity(),
-                        item.getSubTotal()
-                    ))
-                    .collect(Collectors.toList());
-
-        return new OrderDetail(
-                order.getId(),
-                order.getOrderNumber(),
-                order.getStatus(),
-                order.getTotalAmount(),
-                order.getFinalAmount(),
-                order.getCreatedAt(),
-                orderLines
-        );
+    private static void writeCsvRow(Writer writer, ExportRow row) {
+        try {
+            writer.write(row.orderId() + ",");
+            writer.write(csv(row.orderNumber()) + ",");
+            writer.write(row.userId() + ",");
+            writer.write(csv(row.status()) + ",");
+            writer.write(csv(row.totalAmount()) + ",");
+            writer.write(csv(row.finalAmount()) + ",");
+            writer.write(csv(row.createdAt()) + ",");
+            writer.write(csv(row.paidAt()) + ",");
+            writer.write(csv(row.ebookId()) + ",");
+            writer.write(csv(row.title()) + ",");
+            writer.write(csv(row.price()) + ",");
+            writer.write(csv(row.quantity()) + ",");
+            writer.write(csv(row.subTotal()) + "\n");
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //쉼표/따옴표/줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번
+    //문자열이 =,+,-,@(탭/CR)로 시작하면 엑셀이 수식으로 실행하지 않게 앞에 ' 를 붙임(숫자 값은 그대로)
+    static String csv(Object value) {
+        if(value == null) {
+            return "";
+        }
+        String s = value.toString();
+        if(value instanceof CharSequence && !s.isEmpty() && "=+-@\t\r".indexOf(s.charAt(0)) >= 0) {
+            s = "'" + s;
+        }
+        if(s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    //주문 id가 같은 줄들을 모아 한 줄 JSON으로
+    private class NdjsonGrouper {
+        private final Writer writer;
+        private Map<String, Object> current;
+        private List<Map<String, Object>> items;
+        private long orders;
+
+        NdjsonGrouper(Writer writer) {
+            this.writer = writer;
+        }
+
+        void accept(ExportRow row) {
+            if(current == null || !current.get("orderId").equals(row.orderId())) {
+                flushCurrent();
+                current = new LinkedHashMap<>();
+                current.put("orderId", row.orderId());
+                current.put("orderNumber", row.orderNumber());
+                current.put("userId", row.userId());
+                current.put("status", row.status());
+                current.put("totalAmount", row.totalAmount());
+                current.put("finalAmount", row.finalAmount());
+                current.put("createdAt", row.createdAt());
+                current.put("paidAt", row.paidAt());
+                items = new ArrayList<>();
+                current.put("items", items);
+            }
+            if(row.ebookId() != null) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("ebookId", row.ebookId());
+                item.put("title", row.title());
+                item.put("price", row.price());
+                item.put("quantity", row.quantity());
+                item.put("subTotal", row.subTotal());
+                items.add(item);
+            }
+        }
+
+        void flushCurrent() {
+            if(current == null) {
+                return;
+            }
+            try {
+                writer.write(objectMapper.writeValueAsString(current));
+                writer.write('\n');
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            orders++;
+            current = null;
+        }
     }
 }
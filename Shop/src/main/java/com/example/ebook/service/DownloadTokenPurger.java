@@ -0,0 +1,134 @@
+package com.example.ebook.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.ebook.domain.DownloadTokenRepository;
+
+/*
+ * 만료된 다운로드 토큰 정리(download_token 테이블/uq_dt_token 인덱스가 계속 커지지 않게)
+ * -PK 구간(batch-size)씩 나눠 구간마다 짧은 트랜잭션으로 DELETE
+ * -구간 사이에 pause-ms만큼 쉬어서 다운로드 트래픽과 경합 줄임
+ * -만료 직후 토큰은 retention 동안 남겨둠(만료 안내 메시지용)
+ * -주기 실행 + 관리자 수동 실행(POST /admin/jobs/download-token-purge)
+ */
+@Component
+public class DownloadTokenPurger {
+
+	private static final Logger log = LoggerFactory.getLogger(DownloadTokenPurger.class);
+
+	//실행 결과
+	public record PurgeResult(long purged, int chunks, long elapsedMs) {}
+
+	private final DownloadTokenRepository downloadTokenRepository;
+	private final TransactionTemplate tx;
+
+	//한 번에 훑는 PK 구간 크기
+	@Value("${ebook.download.purge-batch-size:5000}")
+	private long batchSize = 5000;
+
+	//구간 사이 쉬는 시간(ms)
+	@Value("${ebook.download.purge-pause-ms:50}")
+	private long pauseMs = 50;
+
+	//만료 후 보관 시간
+	@Value("${ebook.download.purge-retention-hours:24}")
+	private long retentionHours = 24;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final AtomicLong totalPurged = new AtomicLong();
+	private volatile PurgeResult lastResult;
+	private volatile Instant lastRunAt;
+
+	public DownloadTokenPurger(DownloadTokenRepository downloadTokenRepository, PlatformTransactionManager transactionManager) {
+		this.downloadTokenRepository = downloadTokenRepository;
+		this.tx = new TransactionTemplate(transactionManager);
+	}
+
+	//기본 1시간마다
+	@Scheduled(fixedDelayString = "${ebook.download.purge-interval-ms:3600000}",
+			initialDelayString = "${ebook.download.purge-interval-ms:3600000}")
+	public void scheduledPurge() {
+		if(running.get()) {
+			return;
+		}
+		try {
+			purge();
+		} catch(ResponseStatusException e) {
+			//수동 실행과 겹친 경우
+		}
+	}
+
+	//한 번 실행(이미 실행 중이면 409)
+	public PurgeResult purge() {
+		if(!running.compareAndSet(false, true)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "download token purge is already running");
+		}
+		try {
+			PurgeResult result = sweep(LocalDateTime.now().minusHours(retentionHours));
+			totalPurged.addAndGet(result.purged());
+			lastResult = result;
+			lastRunAt = Instant.now();
+			if(result.purged() > 0) {
+				log.info("purged {} expired download tokens in {} chunks ({} ms)", result.purged(), result.chunks(), result.elapsedMs());
+			}
+			return result;
+		} finally {
+			running.set(false);
+		}
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("running", running.get());
+		m.put("lastRunAt", lastRunAt);
+		m.put("lastResult", lastResult);
+		m.put("totalPurged", totalPurged.get());
+		return m;
+	}
+
+	//---------내부 유틸-----------
+	private PurgeResult sweep(LocalDateTime expiredBefore) {
+		long start = System.nanoTime();
+		Long minId = downloadTokenRepository.findMinId();
+		Long maxId = downloadTokenRepository.findMaxId();
+		if(minId == null || maxId == null) {
+			return new PurgeResult(0, 0, 0);
+		}
+
+		long purged = 0;
+		int chunks = 0;
+		//실행 시작 시점의 max id까지만(그 뒤로 발급된 토큰은 아직 유효)
+		for(long from = minId; from <= maxId; from += batchSize) {
+			long fromId = from;
+			long toId = Math.min(from + batchSize, maxId + 1);
+			Integer deleted = tx.execute(status -> downloadTokenRepository.deleteExpiredInIdRange(fromId, toId, expiredBefore));
+			purged += deleted == null ? 0 : deleted;
+			chunks++;
+			if(pauseMs > 0 && toId <= maxId) {
+				try {
+					Thread.sleep(pauseMs);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		return new PurgeResult(purged, chunks, (System.nanoTime() - start) / 1_000_000);
+	}
+}
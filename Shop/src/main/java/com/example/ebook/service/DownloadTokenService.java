@@ -1,18 +1,27 @@
 package com.example.ebook.service;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.example.ebook.common.BlobStore;
+import com.example.ebook.common.BlobStore.BlobInfo;
+import com.example.ebook.common.DownloadRevocations;
+import com.example.ebook.common.DownloadTokenSigner;
+import com.example.ebook.common.DownloadTokenSigner.SignedClaims;
+import com.example.ebook.common.NonceReplayGuard;
 import com.example.ebook.domain.DownloadTokenRepository;
 import com.example.ebook.domain.EbookRepository;
 import com.example.ebook.domain.OrderItemRepository;
@@ -27,29 +36,54 @@ import com.example.ebook.entity.Ebook;
  *주문 상태가 PAID인지 확인
  *해당 주문에 ebookId가 포함돼 있는지 확인
  *토큰 생성 후 만료시간과 함께 저장 
+ *
+ *토큰 방식(ebook.download.token-mode)
+ *db: DT-로 시작하는 랜덤 토큰을 download_token 테이블에 저장(기존 방식)
+ *signed: ST-로 시작하는 서명 토큰, 저장하지 않고 서명/만료를 메모리에서 검증
+ *다운로드 시에는 접두사로 구분하므로 두 방식의 토큰이 섞여 있어도 모두 동작
  */
 @Service
 @Transactional
 public class DownloadTokenService {
 
 	private final OrderRepository orderRepository;
-	private final OrderItemRepository orderItemRepository;
 	private final DownloadTokenRepository downloadTokenRepository;
 	private final EbookRepository ebookRepository;
+	private final DownloadTokenSigner downloadTokenSigner;
+	private final NonceReplayGuard nonceReplayGuard;
+	private final DownloadRevocations downloadRevocations;
+	private final OrderItemRepository orderItemRepository;
+	private final BlobStore blobStore;
 	
 	public DownloadTokenService(OrderRepository orderRepository,
-								OrderItemRepository orderItemRepository,
 								DownloadTokenRepository downloadTokenRepository,
-								EbookRepository ebookRepository) {
+								EbookRepository ebookRepository,
+								DownloadTokenSigner downloadTokenSigner,
+								NonceReplayGuard nonceReplayGuard,
+								DownloadRevocations downloadRevocations,
+								OrderItemRepository orderItemRepository,
+								BlobStore blobStore) {
 		this.orderRepository = orderRepository;
-		this.orderItemRepository = orderItemRepository;
 		this.downloadTokenRepository = downloadTokenRepository;
 		this.ebookRepository = ebookRepository;
+		this.downloadTokenSigner = downloadTokenSigner;
+		this.nonceReplayGuard = nonceReplayGuard;
+		this.downloadRevocations = downloadRevocations;
+		this.orderItemRepository = orderItemRepository;
+		this.blobStore = blobStore;
 	}
 
-	//yml에서 경로를 주입받음
-	@Value("${ebook.storage.path}")
-	private String storagePath;
+	//저장소가 서명 URL을 지원하면(S3) 바이트를 중계하지 않고 저장소로 리다이렉트
+	@Value("${ebook.storage.redirect-downloads:true}")
+	private boolean redirectDownloads;
+
+	//토큰 유효시간(분): 이 시간 안에서는 끊긴 다운로드를 같은 토큰으로 이어받을 수 있음
+	@Value("${ebook.download.token-ttl-minutes:10}")
+	private long tokenTtlMinutes;
+
+	//발급 토큰 방식: db(기본) / signed
+	@Value("${ebook.download.token-mode:db}")
+	private String tokenMode;
 	
 	public DownloadTokenResponse issue(Long userId, Long orderId, Long ebookId) {
 		//파라미터 검증
@@ -67,16 +101,23 @@ public class DownloadTokenService {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order is not PAID");
 		}
 		
-		//주문 아이템에 해당 ebook이 있는지 확인
-		boolean contains = orderItemRepository.findByOrder_Id(orderId).stream()
-				.anyMatch(oi -> oi.getEbook() != null && ebookId.equals(oi.getEbook().getId()));
-		if(!contains) {
+		//요청한 주문에 이 책이 있는지 확인(아이템 엔티티를 로딩하지 않음)
+		//토큰은 이 주문에 묶임 -> 이 주문이 환불되면 토큰도 무효
+		if(!orderItemRepository.existsByOrder_IdAndEbook_Id(orderId, ebookId)) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ebook not in the order");
 		}
 		
-		//토큰 생성(충돌 걱정 없는 UUID) + 만료시간(예: 10분)
+		LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(tokenTtlMinutes);
+
+		//서명 토큰: DB insert 없이 발급
+		if("signed".equalsIgnoreCase(tokenMode)) {
+			long expiresAtEpochSecond = expiresAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+			String token = downloadTokenSigner.sign(userId, orderId, ebookId, expiresAtEpochSecond);
+			return new DownloadTokenResponse(token, expiresAt);
+		}
+		
+		//토큰 생성(충돌 걱정 없는 UUID) + 만료시간(기본 10분)
 		String token = "DT-" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
-		LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
 		
 		//저장
 		var entity = new DownloadToken(userId, orderId, ebookId, token, expiresAt);
@@ -85,15 +126,28 @@ public class DownloadTokenService {
 		return new DownloadTokenResponse(token, expiresAt);
 	}
 
-	//다운로드 응답용(컨드롤러에서 filename(), bytes()로 꺼냄)
-	public record DownloadFile(String filename, byte[] bytes) {}
+	//다운로드 응답용(컨트롤러에서 filename(), resource()로 꺼냄)
+	//파일 내용을 힙에 올리지 않고 Resource로 넘겨서 응답 시점에 스트리밍
+	//etag/lastModified는 Range 이어받기(If-Range) 검증에 사용
+	//redirect가 있으면 컨트롤러는 바디 대신 302로 저장소 URL을 넘김
+	public record DownloadFile(String filename, Resource resource, long length, String etag, long lastModified, URI redirect) {
+		public DownloadFile(String filename, Resource resource, long length, String etag, long lastModified) {
+			this(filename, resource, length, etag, lastModified, null);
+		}
+	}
 
-	//토큰으로 다운로드(만료 검증 + 1회성 소비 + 파일 바이트 생성)
+	//토큰으로 다운로드(만료 검증 + 파일 Resource 생성)
+	//토큰은 만료 전까지 재사용 가능 -> 연결이 끊겨도 Range 요청으로 이어받기 가능
 	public DownloadFile download(String token) {
 		if(token == null || token.isBlank()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "token is required");
 		}
 
+		//서명 토큰이면 download_token 테이블을 거치지 않음
+		if(token.startsWith(DownloadTokenSigner.PREFIX)) {
+			return downloadSigned(token);
+		}
+
 		//토큰 조회
 		DownloadToken dt = downloadTokenRepository.findByToken(token)
 					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "token not found"));
@@ -108,24 +162,55 @@ public class DownloadTokenService {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "token has no orderId. re-issue token");
 		}
 
-		//주문 재검증(본인/PAID/ebook 포함)
-		var order = orderRepository.findById(dt.getOrderId())
+		//주문 재검증(본인/PAID)
+		verifyPaidOrder(dt.getOrderId(), dt.getUserId());
+
+		return toDownloadFile(dt.getEbookId());
+	}
+
+	//서명 토큰 다운로드: 서명/만료/재사용 횟수는 메모리에서, DB는 환불 여부(주문 상태) 확인에만 사용
+	private DownloadFile downloadSigned(String token) {
+		SignedClaims claims = downloadTokenSigner.verify(token)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "token not found"));
+
+		if(claims.expiresAtEpochSecond() < Instant.now().getEpochSecond()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "token expired");
+		}
+
+		if(!nonceReplayGuard.tryUse(claims.nonce(), claims.expiresAtEpochSecond())) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "token use limit exceeded. re-issue token");
+		}
+
+		//환불(취소)된 주문이면 토큰이 살아 있어도 거절
+		verifyPaidOrder(claims.orderId(), claims.userId());
+
+		return toDownloadFile(claims.ebookId());
+	}
+
+	//주문이 본인 것이고 PAID 상태인지 확인
+	private void verifyPaidOrder(Long orderId, Long userId) {
+		//이 서버에서 방금 환불된 주문이면 DB 조회 없이 거절(다른 서버의 환불은 아래 상태 확인에서 걸림)
+		if(downloadRevocations.isRevoked(orderId)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "order is not PAID");
+		}
+
+		var order = orderRepository.findById(orderId)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "order not found"));
 		
-		if(!order.getUserId().equals(dt.getUserId())) {
+		if(!order.getUserId().equals(userId)) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "order not found");
 		}
 
 		if(!"PAID".equalsIgnoreCase(order.getStatus())) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "order is not PAID");
 		}
+	}
 
-		Ebook ebook = ebookRepository.findById(dt.getEbookId())
+	//이북의 실제 파일을 다운로드 응답용 Resource로 변환
+	private DownloadFile toDownloadFile(Long ebookId) {
+		Ebook ebook = ebookRepository.findById(ebookId)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ebook not found"));
 
-		//토큰 삭제(1회용)
-		downloadTokenRepository.deleteById(dt.getId());
-
 		//DB에 저장된 실제 UUID 파일명
 		String realFileName = ebook.getFilePath();
 		
@@ -133,33 +218,48 @@ public class DownloadTokenService {
 			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "File path is missing in DB");
 		}
 
+		//저장소(로컬/S3)에서 크기/수정 시각 조회
+		BlobInfo info;
 		try {
-			//설정된 경로(storagePath)와 파일명 합침
-			Path path = Paths.get(storagePath).resolve(realFileName).normalize();
-
-			//파일 존재 여부 확인
-			if(!Files.exists(path)) {
-				//보안상 실제 경로를 노출하지 않고 404처리
-				System.out.println("File not found at: " + path.toAbsolutePath());
-				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Physical file not found: ");
-			}
-
-			//파일 읽기
-			byte[] bytes = Files.readAllBytes(path);
-
-			//다운로드될때 사용자가 볼 파일명
-			String displayFilename = ebook.getOriginalFileName();
-			if(displayFilename == null || displayFilename.isBlank()) {
-				displayFilename = ebook.getTitle() + ".pdf";
-			}
-
-			//한글 깨짐 방지
-			displayFilename = new String(displayFilename.getBytes("UTF-8"), "ISO-8859-1");
-			
-			return new DownloadFile(displayFilename, bytes);
+			info = blobStore.stat(realFileName).orElse(null);
+		} catch(IllegalArgumentException e) {
+			info = null;	//저장 경로 밖을 가리키는 값
 		} catch(IOException e) {
-			e.printStackTrace();		//서버 로그에 에러 출력
+			e.printStackTrace();
 			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "failed to read ebook file");
 		}
+
+		//파일 존재 여부 확인
+		if(info == null) {
+			//보안상 실제 경로를 노출하지 않고 404처리
+			System.out.println("File not found at: " + realFileName);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Physical file not found: ");
+		}
+
+		//파일 전체를 읽지 않고 Resource로 감싸기만 함(크기와 무관하게 요청당 힙 사용량 일정)
+		Resource resource = blobStore.asResource(realFileName, info);
+
+		//다운로드될때 사용자가 볼 파일명
+		String displayFilename = ebook.getOriginalFileName();
+		if(displayFilename == null || displayFilename.isBlank()) {
+			displayFilename = ebook.getTitle() + ".pdf";
+		}
+
+		//서명 URL은 토큰 유효시간만큼만(파일명은 저장소가 Content-Disposition으로 내려줌)
+		URI redirect = redirectDownloads
+				? blobStore.presignedGet(realFileName, displayFilename, Duration.ofMinutes(tokenTtlMinutes)).orElse(null)
+				: null;
+
+		//한글 깨짐 방지
+		displayFilename = new String(displayFilename.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+
+		long length = info.size();
+		long lastModified = info.lastModified();
+		return new DownloadFile(displayFilename, resource, length, createEtag(length, lastModified), lastModified, redirect);
+	}
+
+	//저장된 파일 기준 강한 ETag(크기 + 수정시각): 파일이 바뀌면 값이 달라져서 이어받기가 무효화됨
+	private String createEtag(long length, long lastModified) {
+		return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
 	}
 }
@@ -0,0 +1,103 @@
+package com.example.ebook.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.example.ebook.entity.Ebook;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/*
+ * 공개 카탈로그 조회 캐시
+ * -상세: ebook id 단위
+ * -목록: (카테고리, 검색어, 페이지, 크기, 정렬) 단위, 앞쪽 N페이지만 캐시
+ * 크기/TTL로 자동 제거되고, 관리자 수정 시 EbookService에서 관련 항목만 지움
+ */
+@Component
+public class EbookCatalogCache {
+
+	//목록 캐시 키(카테고리는 정규화해서 ALL/카테고리명)
+	public record PageKey(String category, String q, int page, int size, String sort) {}
+
+	private final Cache<Long, Ebook> detailCache;
+	private final Cache<PageKey, Page<Ebook>> pageCache;
+	private final int cachedPages;
+
+	public EbookCatalogCache(@Value("${ebook.catalog-cache.detail-max-size:10000}") long detailMaxSize,
+							 @Value("${ebook.catalog-cache.page-max-size:2000}") long pageMaxSize,
+							 @Value("${ebook.catalog-cache.ttl-seconds:300}") long ttlSeconds,
+							 @Value("${ebook.catalog-cache.cached-pages:5}") int cachedPages) {
+		this.detailCache = Caffeine.newBuilder()
+				.maximumSize(detailMaxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+		this.pageCache = Caffeine.newBuilder()
+				.maximumSize(pageMaxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+		this.cachedPages = cachedPages;
+	}
+
+	//상세 조회: 캐시에 없으면 loader로 읽어서 저장(없는 id는 loader가 예외 -> 저장 안 됨)
+	public Ebook getDetail(Long id, Supplier<Ebook> loader) {
+		return detailCache.get(id, key -> loader.get());
+	}
+
+	//목록 조회: 앞쪽 N페이지만 캐시, 그 뒤 페이지는 바로 DB
+	public Page<Ebook> getPage(String category, String q, Pageable pageable, Supplier<Page<Ebook>> loader) {
+		if(pageable.getPageNumber() >= cachedPages) {
+			return loader.get();
+		}
+		PageKey key = new PageKey(normalizeCategory(category),
+				q == null ? "" : q.trim().toLowerCase(),
+				pageable.getPageNumber(),
+				pageable.getPageSize(),
+				pageable.getSort().toString());
+		return pageCache.get(key, k -> loader.get());
+	}
+
+	//이북 하나가 바뀌었을 때: 상세 + 해당 카테고리(변경 전/후)와 ALL 목록만 제거
+	public void evict(Long ebookId, Set<String> categories) {
+		if(ebookId != null) {
+			detailCache.invalidate(ebookId);
+		}
+		pageCache.asMap().keySet().removeIf(key ->
+				key.category().equals("ALL") || categories.contains(key.category()));
+	}
+
+	//캐시 적중률 등 모니터링 값
+	public Map<String, Object> stats() {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("detail", toMap(detailCache.stats(), detailCache.estimatedSize()));
+		body.put("page", toMap(pageCache.stats(), pageCache.estimatedSize()));
+		return body;
+	}
+
+	public static String normalizeCategory(String category) {
+		if(category == null || category.isBlank()) {
+			return "ALL";
+		}
+		return category.trim();
+	}
+
+	private Map<String, Object> toMap(CacheStats stats, long size) {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("size", size);
+		m.put("hits", stats.hitCount());
+		m.put("misses", stats.missCount());
+		m.put("hitRatio", stats.hitRate());
+		m.put("evictions", stats.evictionCount());
+		return m;
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.ebook.service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.domain.EbookRepository.StatusCategoryCount;
+
+/*
+ * (상태, 카테고리)별 이북 수를 메모리에 유지 -> 목록 페이징마다 COUNT 쿼리를 날리지 않기 위함
+ * -EbookService 생성/수정/삭제 커밋 후 증감
+ * -주기적으로 DB의 GROUP BY 결과로 맞춰줌(재시작/직접 SQL 수정/동시 변경으로 어긋난 값 보정)
+ */
+@Component
+public class EbookCountCache {
+
+	private static final Logger log = LoggerFactory.getLogger(EbookCountCache.class);
+
+	private record Key(String status, String category) {}
+
+	private final EbookRepository ebookRepository;
+
+	private volatile Map<Key, AtomicLong> counts = new ConcurrentHashMap<>();
+	private volatile boolean loaded;
+	private volatile Instant lastReconciledAt;
+	private volatile long lastDrift;	//마지막 보정 때 메모리 값과 DB 값 차이의 합(0이 정상)
+
+	public EbookCountCache(EbookRepository ebookRepository) {
+		this.ebookRepository = ebookRepository;
+	}
+
+	//category가 ALL(또는 빈 값)이면 해당 상태 전체 수
+	public long count(String status, String category) {
+		if(!loaded) {
+			reconcile();
+		}
+		String c = EbookCatalogCache.normalizeCategory(category);
+		String s = normalizeStatus(status);
+		if(c.equals("ALL")) {
+			return counts.entrySet().stream()
+					.filter(e -> e.getKey().status().equals(s))
+					.mapToLong(e -> e.getValue().get())
+					.sum();
+		}
+		AtomicLong n = counts.get(new Key(s, c));
+		return n == null ? 0 : n.get();
+	}
+
+	//커밋된 변경 반영
+	public void increment(String status, String category) {
+		adjust(status, category, 1);
+	}
+
+	public void decrement(String status, String category) {
+		adjust(status, category, -1);
+	}
+
+	//DB 기준으로 다시 맞춤(기본 5분마다)
+	@Scheduled(fixedDelayString = "${ebook.catalog-count.reconcile-ms:300000}",
+			initialDelayString = "${ebook.catalog-count.reconcile-ms:300000}")
+	public synchronized void reconcile() {
+		Map<Key, AtomicLong> fresh = new ConcurrentHashMap<>();
+		for(StatusCategoryCount row : ebookRepository.countGroupByStatusAndCategory()) {
+			Key key = new Key(normalizeStatus(row.getStatus()), EbookCatalogCache.normalizeCategory(row.getCategory()));
+			fresh.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(row.getCnt());
+		}
+
+		if(loaded) {
+			long drift = 0;
+			for(Key key : union(fresh, counts)) {
+				drift += Math.abs(value(fresh, key) - value(counts, key));
+			}
+			lastDrift = drift;
+			if(drift > 0) {
+				log.info("ebook count cache reconciled, drift={}", drift);
+			}
+		}
+		counts = fresh;
+		loaded = true;
+		lastReconciledAt = Instant.now();
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("loaded", loaded);
+		m.put("lastReconciledAt", lastReconciledAt);
+		m.put("lastDrift", lastDrift);
+		Map<String, Long> byKey = new LinkedHashMap<>();
+		counts.forEach((k, v) -> byKey.put(k.status() + "/" + k.category(), v.get()));
+		m.put("counts", byKey);
+		return m;
+	}
+
+	//---------내부 유틸-----------
+	private void adjust(String status, String category, long delta) {
+		if(!loaded) {
+			return;	//아직 안 읽었으면 첫 조회 때 DB에서 읽으므로 무시
+		}
+		Key key = new Key(normalizeStatus(status), EbookCatalogCache.normalizeCategory(category));
+		counts.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+	}
+
+	private static String normalizeStatus(String status) {
+		return status == null ? "" : status.trim();
+	}
+
+	private static Set<Key> union(Map<Key, AtomicLong> a, Map<Key, AtomicLong> b) {
+		Set<Key> keys = new HashSet<>(a.keySet());
+		keys.addAll(b.keySet());
+		return keys;
+	}
+
+	private static long value(Map<Key, AtomicLong> map, Key key) {
+		AtomicLong n = map.get(key);
+		return n == null ? 0 : n.get();
+	}
+}
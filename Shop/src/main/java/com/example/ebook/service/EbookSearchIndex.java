@@ -0,0 +1,361 @@
+package com.example.ebook.service;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.domain.EbookRepository.EbookIndexRow;
+import com.example.ebook.entity.Ebook;
+
+/*
+ * 이북 제목/저자 검색용 인메모리 역색인
+ * -토큰(공백/기호 기준)마다 글자 1-gram + 2-gram을 색인 -> 한글처럼 띄어쓰기 없는 부분 검색도 가능
+ * -검색어 토큰의 n-gram 목록(정렬된 id 배열)을 교집합한 뒤, 실제 포함 여부로 한 번 더 거름
+ * -점수: 제목 단어 일치 > 제목 포함 > 저자 포함, 동점이면 최신(id 내림차순)
+ * 앱 시작 시 DB에서 id 순으로 나눠 읽어 재구성하고, 이후엔 EbookService 변경 때마다 갱신
+ */
+@Component
+public class EbookSearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(EbookSearchIndex.class);
+	private static final int REBUILD_BATCH_SIZE = 1000;
+
+	//검색 결과: 현재 페이지 id(순위순) + 전체 일치 건수
+	public record SearchResult(List<Long> ids, long total) {}
+
+	//색인된 문서(제목/저자는 정규화된 소문자)
+	private record Doc(long id, String title, String author, String category, boolean active) {}
+
+	private final EbookRepository ebookRepository;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Map<Long, Doc> docs = new HashMap<>();
+	private Map<String, Postings> postings = new HashMap<>();
+
+	//재구성 중 들어온 변경은 모아뒀다가 새 색인에 다시 적용
+	private final Queue<Runnable> pendingDuringRebuild = new ArrayDeque<>();
+	private boolean rebuilding;
+	private volatile boolean ready;
+
+	public EbookSearchIndex(EbookRepository ebookRepository) {
+		this.ebookRepository = ebookRepository;
+	}
+
+	//시드 데이터(CommandLineRunner)까지 들어간 뒤 색인 구성
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		rebuild();
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	//DB 전체를 id 순으로 배치 조회해 새 색인을 만든 뒤 한 번에 교체
+	public void rebuild() {
+		long started = System.currentTimeMillis();
+		lock.writeLock().lock();
+		try {
+			rebuilding = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		Map<Long, Doc> newDocs = new HashMap<>();
+		Map<String, Postings> newPostings = new HashMap<>();
+		long afterId = 0L;
+		while(true) {
+			List<EbookIndexRow> rows = ebookRepository.findIndexRowsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+			if(rows.isEmpty()) {
+				break;
+			}
+			for(EbookIndexRow row : rows) {
+				Doc doc = toDoc(row.getId(), row.getTitle(), row.getAuthor(), row.getCategory(), row.getStatus());
+				newDocs.put(doc.id(), doc);
+				//id 오름차순으로 들어오므로 각 목록 끝에 붙이기만 하면 정렬 유지
+				for(String gram : grams(doc)) {
+					newPostings.computeIfAbsent(gram, g -> new Postings()).add(doc.id());
+				}
+			}
+			afterId = rows.get(rows.size() - 1).getId();
+		}
+
+		lock.writeLock().lock();
+		try {
+			docs = newDocs;
+			postings = newPostings;
+			rebuilding = false;
+			while(!pendingDuringRebuild.isEmpty()) {
+				pendingDuringRebuild.poll().run();
+			}
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("ebook search index rebuilt: docs={}, grams={}, {}ms",
+				newDocs.size(), newPostings.size(), System.currentTimeMillis() - started);
+	}
+
+	//생성/수정 반영
+	public void upsert(Ebook e) {
+		Doc doc = toDoc(e.getId(), e.getTitle(), e.getAuthor(), e.getCategory(), e.getStatus());
+		lock.writeLock().lock();
+		try {
+			if(rebuilding) {
+				pendingDuringRebuild.add(() -> applyUpsert(doc));
+			}
+			applyUpsert(doc);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//삭제 반영
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			if(rebuilding) {
+				pendingDuringRebuild.add(() -> applyRemove(id));
+			}
+			applyRemove(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//ACTIVE 이북 중 검색어의 모든 토큰을 제목/저자에 포함하는 것을 관련도순으로 반환
+	public SearchResult search(String category, String q, int offset, int limit) {
+		List<String> tokens = tokenize(q);
+		if(tokens.isEmpty()) {
+			return new SearchResult(List.of(), 0);
+		}
+		String categoryFilter = EbookCatalogCache.normalizeCategory(category);
+
+		lock.readLock().lock();
+		try {
+			long[] candidates = null;
+			for(String token : tokens) {
+				long[] ids = candidatesFor(token);
+				candidates = candidates == null ? ids : intersect(candidates, ids);
+				if(candidates.length == 0) {
+					return new SearchResult(List.of(), 0);
+				}
+			}
+
+			List<long[]> scored = new ArrayList<>();	//[id, score]
+			for(long id : candidates) {
+				Doc doc = docs.get(id);
+				if(doc == null || !doc.active()) continue;
+				if(!categoryFilter.equals("ALL") && !categoryFilter.equals(doc.category())) continue;
+				int score = score(doc, tokens);
+				if(score > 0) {
+					scored.add(new long[] {id, score});
+				}
+			}
+
+			scored.sort(Comparator.<long[]>comparingLong(s -> s[1]).reversed()
+					.thenComparing(Comparator.<long[]>comparingLong(s -> s[0]).reversed()));
+
+			List<Long> page = scored.stream()
+					.skip(offset)
+					.limit(limit)
+					.map(s -> s[0])
+					.toList();
+			return new SearchResult(page, scored.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		lock.readLock().lock();
+		try {
+			Map<String, Object> m = new LinkedHashMap<>();
+			m.put("ready", ready);
+			m.put("docs", docs.size());
+			m.put("grams", postings.size());
+			return m;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//---------내부 유틸-----------
+	private void applyUpsert(Doc doc) {
+		applyRemove(doc.id());
+		docs.put(doc.id(), doc);
+		for(String gram : grams(doc)) {
+			postings.computeIfAbsent(gram, g -> new Postings()).add(doc.id());
+		}
+	}
+
+	private void applyRemove(long id) {
+		Doc old = docs.remove(id);
+		if(old == null) return;
+		for(String gram : grams(old)) {
+			Postings p = postings.get(gram);
+			if(p != null) {
+				p.remove(id);
+				if(p.size == 0) postings.remove(gram);
+			}
+		}
+	}
+
+	//토큰 하나에 대한 후보: 1글자면 1-gram, 아니면 2-gram 목록 교집합
+	private long[] candidatesFor(String token) {
+		if(token.length() == 1) {
+			Postings p = postings.get(token);
+			return p == null ? new long[0] : p.toArray();
+		}
+		long[] result = null;
+		for(String gram : bigrams(token)) {
+			Postings p = postings.get(gram);
+			if(p == null) return new long[0];
+			result = result == null ? p.toArray() : intersect(result, p.toArray());
+			if(result.length == 0) return result;
+		}
+		return result;
+	}
+
+	//n-gram은 위치 정보가 없으므로 실제 부분 문자열 포함 여부로 최종 확인 + 점수 계산
+	private int score(Doc doc, List<String> tokens) {
+		int total = 0;
+		for(String token : tokens) {
+			int s = 0;
+			if(doc.title().contains(token)) {
+				s += 2;
+				if(tokenize(doc.title()).contains(token)) s += 1;	//단어 전체 일치
+			}
+			if(doc.author().contains(token)) {
+				s += 1;
+			}
+			if(s == 0) return 0;	//모든 토큰이 어딘가에 있어야 함
+			total += s;
+		}
+		return total;
+	}
+
+	private Doc toDoc(Long id, String title, String author, String category, String status) {
+		return new Doc(id,
+				normalize(title),
+				normalize(author),
+				EbookCatalogCache.normalizeCategory(category),
+				"ACTIVE".equalsIgnoreCase(status == null ? "" : status.trim()));
+	}
+
+	private Set<String> grams(Doc doc) {
+		Set<String> grams = new LinkedHashSet<>();
+		for(String token : tokenize(doc.title())) addGrams(token, grams);
+		for(String token : tokenize(doc.author())) addGrams(token, grams);
+		return grams;
+	}
+
+	private static void addGrams(String token, Set<String> grams) {
+		for(int i = 0; i < token.length(); i++) {
+			grams.add(token.substring(i, i + 1));
+		}
+		grams.addAll(bigrams(token));
+	}
+
+	private static List<String> bigrams(String token) {
+		List<String> result = new ArrayList<>();
+		for(int i = 0; i + 2 <= token.length(); i++) {
+			result.add(token.substring(i, i + 2));
+		}
+		return result;
+	}
+
+	static List<String> tokenize(String text) {
+		String normalized = normalize(text);
+		if(normalized.isBlank()) return List.of();
+		return Arrays.stream(normalized.split("[^\\p{L}\\p{N}]+"))
+				.filter(t -> !t.isEmpty())
+				.distinct()
+				.toList();
+	}
+
+	private static String normalize(String text) {
+		if(text == null) return "";
+		return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+	}
+
+	//정렬된 두 id 배열의 교집합(작은 쪽 기준 이진 탐색)
+	private static long[] intersect(long[] a, long[] b) {
+		if(a.length > b.length) {
+			long[] t = a; a = b; b = t;
+		}
+		long[] out = new long[a.length];
+		int n = 0;
+		int from = 0;
+		for(long id : a) {
+			int pos = Arrays.binarySearch(b, from, b.length, id);
+			if(pos >= 0) {
+				out[n++] = id;
+				from = pos + 1;
+			} else {
+				from = -pos - 1;
+			}
+			if(from >= b.length) break;
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	//하나의 n-gram에 대한 정렬된 id 목록(박싱 없는 long 배열)
+	private static final class Postings {
+		private long[] ids = new long[4];
+		private int size;
+
+		void add(long id) {
+			//대부분 새 id(가장 큰 값)라 끝에 추가
+			if(size == 0 || ids[size - 1] < id) {
+				ensureCapacity();
+				ids[size++] = id;
+				return;
+			}
+			int pos = Arrays.binarySearch(ids, 0, size, id);
+			if(pos >= 0) return;	//이미 있음
+			int insertAt = -pos - 1;
+			ensureCapacity();
+			System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+			ids[insertAt] = id;
+			size++;
+		}
+
+		void remove(long id) {
+			int pos = Arrays.binarySearch(ids, 0, size, id);
+			if(pos < 0) return;
+			System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+			size--;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(ids, size);
+		}
+
+		private void ensureCapacity() {
+			if(size == ids.length) {
+				ids = Arrays.copyOf(ids, ids.length * 2);
+			}
+		}
+	}
+}
@@ -1,15 +1,28 @@
 package com.example.ebook.service;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.example.ebook.common.FileStore;
 import com.example.ebook.domain.EbookRepository;
 import com.example.ebook.entity.Ebook;
 
@@ -19,9 +32,23 @@ import com.example.ebook.entity.Ebook;
 public class EbookService {
 	
 	private final EbookRepository ebookRepository;
+	private final EbookCatalogCache catalogCache;
+	private final EbookSearchIndex searchIndex;
+	private final EbookCountCache countCache;
+	private final EntitlementService entitlementService;
+	private final StoredFileService storedFileService;
+	private final FileStore fileStore;
 	
-	public EbookService (EbookRepository ebookRepository) {
+	public EbookService (EbookRepository ebookRepository, EbookCatalogCache catalogCache, EbookSearchIndex searchIndex,
+						 EbookCountCache countCache, EntitlementService entitlementService, StoredFileService storedFileService,
+						 FileStore fileStore) {
 		this.ebookRepository = ebookRepository;
+		this.catalogCache = catalogCache;
+		this.searchIndex = searchIndex;
+		this.countCache = countCache;
+		this.entitlementService = entitlementService;
+		this.storedFileService = storedFileService;
+		this.fileStore = fileStore;
 	}
 
 	//상태무관 전체 목록 페이지 조회
@@ -51,23 +78,76 @@ public class EbookService {
 	}
 
 	//카테고리, 검색어, 페이징 처리 메서드
+	//공개 목록(트래픽 대부분)이라 앞쪽 페이지는 캐시에서 응답
 	public Page<Ebook> listActivePage(String category, String q, Pageable pageable) {
+		return catalogCache.getPage(category, q, pageable, () -> loadActivePage(category, q, pageable));
+	}
+
+	private Page<Ebook> loadActivePage(String category, String q, Pageable pageable) {
 		boolean hasCategory = category != null && !category.isBlank() && !category.equals("ALL");
 		boolean hasSearch = q != null && !q.isBlank();
 
-		if(hasCategory && hasSearch) {
-			return ebookRepository.findByStatusAndCategoryAndTitleContainingIgnoreCase("ACTIVE", category.trim(), q.trim(), pageable);
-		} else if(hasCategory) {
-			return ebookRepository.findByStatusAndCategory("ACTIVE", category.trim(), pageable);
-		} else if(hasSearch) {
-			return ebookRepository.findByStatusAndTitleContainingIgnoreCase("ACTIVE", q.trim(), pageable);
-		} else {
-			return ebookRepository.findByStatus("ACTIVE", pageable);
+		//검색어가 있으면 역색인 사용(관련도순), 색인 준비 전에는 기존 LIKE 검색으로 대체
+		if(hasSearch && searchIndex.isReady()) {
+			return searchActivePage(category, q, pageable);
 		}
+
+		//목록은 COUNT 쿼리 없이 Slice로 읽고 전체 수는 카운트 캐시에서
+		if(!hasSearch) {
+			Slice<Ebook> slice = hasCategory
+					? ebookRepository.findSliceByStatusAndCategory("ACTIVE", category.trim(), pageable)
+					: ebookRepository.findSliceByStatus("ACTIVE", pageable);
+			return new PageImpl<>(slice.getContent(), pageable, countCache.count("ACTIVE", category));
+		}
+
+		//색인 준비 전 LIKE 검색: 정확한 수 대신 Slice 기준(다음 페이지가 있으면 +1)
+		Slice<Ebook> slice = hasCategory
+				? ebookRepository.findSliceByStatusAndCategoryAndTitleContainingIgnoreCase("ACTIVE", category.trim(), q.trim(), pageable)
+				: ebookRepository.findSliceByStatusAndTitleContainingIgnoreCase("ACTIVE", q.trim(), pageable);
+		long total = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+		return new PageImpl<>(slice.getContent(), pageable, total);
 	}
 	
-	//단건 조회(없으면 예외)
+	//키셋(커서) 페이징: after(직전 페이지 마지막 id)보다 작은 id를 size개, 최신순
+	//한 건 더 읽어서 다음 페이지 여부만 판단하고 COUNT는 하지 않음
+	public Slice<Ebook> listActiveAfter(String category, Long after, int size) {
+		long cursor = after == null ? Long.MAX_VALUE : after;
+		var limit = PageRequest.of(0, size + 1);
+		boolean hasCategory = category != null && !category.isBlank() && !category.equals("ALL");
+
+		List<Ebook> rows = hasCategory
+				? ebookRepository.findByStatusAndCategoryAndIdLessThanOrderByIdDesc("ACTIVE", category.trim(), cursor, limit)
+				: ebookRepository.findByStatusAndIdLessThanOrderByIdDesc("ACTIVE", cursor, limit);
+
+		boolean hasNext = rows.size() > size;
+		List<Ebook> content = hasNext ? rows.subList(0, size) : rows;
+		return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+	}
+
+	//ACTIVE 이북 수(카테고리 선택), 카운트 캐시에서 응답
+	public long countActive(String category) {
+		return countCache.count("ACTIVE", category);
+	}
+
+	//색인에서 현재 페이지 id만 받아 한 번에 조회 후 순위대로 정렬
+	private Page<Ebook> searchActivePage(String category, String q, Pageable pageable) {
+		EbookSearchIndex.SearchResult result = searchIndex.search(category, q, (int) pageable.getOffset(), pageable.getPageSize());
+		Map<Long, Ebook> byId = ebookRepository.findAllById(result.ids()).stream()
+				.collect(Collectors.toMap(Ebook::getId, Function.identity()));
+		List<Ebook> content = result.ids().stream()
+				.map(byId::get)
+				.filter(e -> e != null)	//색인 반영 직전에 삭제된 경우
+				.toList();
+		return new PageImpl<>(content, pageable, result.total());
+	}
+	
+	//단건 조회(없으면 예외), 상세 페이지용이라 캐시 사용
 	public Ebook getById(Long id) {
+		return catalogCache.getDetail(id, () -> findById(id));
+	}
+
+	//수정/삭제용 조회: 캐시된 객체를 건드리지 않도록 항상 DB에서 읽음
+	private Ebook findById(Long id) {
 		return ebookRepository.findById(id)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ebook not found: id = " + id));
 	}
@@ -91,35 +171,105 @@ public class EbookService {
 		e.setStatus(status == null || status.isBlank() ? "ACTIVE" : status.trim());
 		e.setCategory(category == null || category.isBlank() ? "ETC" : category.trim());
 		e.setThumbnailPath(thumbnailPath);
+		e.setThumbnailWidths(fileStore.existingVariantWidths(thumbnailPath));	//실제로 만들어진 축소본만
 		e.setFilePath(filePath);
 		e.setOriginalFileName(originalFileName);
 		
-		
-		return ebookRepository.save(e);
+		Ebook saved = ebookRepository.save(e);
+		afterCommit(() -> countCache.increment(saved.getStatus(), saved.getCategory()));
+		afterCommit(() -> searchIndex.upsert(saved));
+		evictCatalog(saved.getId(), Set.of(EbookCatalogCache.normalizeCategory(saved.getCategory())));
+		return saved;
 	}
 	//이북 정보 수정, 널이 아닌 값만 반영
 	//제목, 저자, 가격, 썸네일, 상태를 선택적으로 갱신
 	@Transactional
 	public Ebook update(Long id, String title, String author, BigDecimal price, String thumbnail, String status, String category) {
-		Ebook e = getById(id); //존재 확인
+		Ebook e = findById(id); //존재 확인
+		Set<String> categories = new HashSet<>();
+		categories.add(EbookCatalogCache.normalizeCategory(e.getCategory()));	//변경 전 카테고리 목록도 무효화 대상
+		String oldStatus = e.getStatus();
+		String oldCategory = e.getCategory();
 		if(title != null && !title.isBlank()) e.setTitle(title.trim()); //제목 변경 null이면 변경 안함, 제목 앞뒤 공백 제거
 		if(author != null) e.setAuthor(author);
 		if(price != null) {
 			if(price.signum() < 0) throw new IllegalArgumentException("price must be >= 0");
 			e.setPrice(price);
 		} // 새 가격 null이면 변경 안함, 0원 이상만 허용
-		if(thumbnail != null)e.setThumbnailPath(thumbnail); // null이면 변경안함
+		if(thumbnail != null) {	// null이면 변경안함
+			e.setThumbnailPath(thumbnail);
+			e.setThumbnailWidths(fileStore.existingVariantWidths(thumbnail));
+		}
 		if(status != null && !status.isBlank()) e.setStatus(status.trim()); //새 상태 null이면 변경안함, 앞뒤 공백제거
 		if(category != null && !category.isBlank()) e.setCategory(category.trim());
 
-		return ebookRepository.save(e);
+		Ebook saved = ebookRepository.save(e);
+		categories.add(EbookCatalogCache.normalizeCategory(saved.getCategory()));
+		String newStatus = saved.getStatus();
+		String newCategory = saved.getCategory();
+		if(!Objects.equals(oldStatus, newStatus) || !Objects.equals(oldCategory, newCategory)) {
+			afterCommit(() -> {
+				countCache.decrement(oldStatus, oldCategory);
+				countCache.increment(newStatus, newCategory);
+			});
+		}
+		afterCommit(() -> searchIndex.upsert(saved));
+		if(title != null || author != null || thumbnail != null) {
+			entitlementService.refreshEbook(saved);	//내 서재 사본
+		}
+		evictCatalog(id, categories);
+		return saved;
+	}
+	
+	//본문 파일 교체, 이전 파일 참조는 커밋 후 해제
+	@Transactional
+	public Ebook replaceFile(Long id, String filePath, String originalFileName) {
+		Ebook e = findById(id);
+		String oldFilePath = e.getFilePath();
+		e.setFilePath(filePath);
+		if(originalFileName != null && !originalFileName.isBlank()) e.setOriginalFileName(originalFileName);
+		Ebook saved = ebookRepository.save(e);
+		if(!Objects.equals(oldFilePath, filePath)) {
+			afterCommit(() -> storedFileService.release(oldFilePath));
+		}
+		evictCatalog(id, Set.of(EbookCatalogCache.normalizeCategory(saved.getCategory())));
+		return saved;
 	}
 	
 	//이북 삭제
 	@Transactional
 	public void delete(Long id) {
-		Ebook e = getById(id); //없으면 예외
+		Ebook e = findById(id); //없으면 예외
 		ebookRepository.delete(e);
+		String status = e.getStatus();
+		String category = e.getCategory();
+		String filePath = e.getFilePath();
+		afterCommit(() -> countCache.decrement(status, category));
+		afterCommit(() -> storedFileService.release(filePath));	//본문 파일 참조 해제(마지막 참조면 삭제)
+		afterCommit(() -> searchIndex.remove(id));
+		evictCatalog(id, Set.of(EbookCatalogCache.normalizeCategory(e.getCategory())));
+	}
+
+	//카탈로그 캐시 무효화: 지금 한 번 + 커밋 후 한 번
+	//(검색 색인 갱신을 먼저 등록해 두어 무효화 뒤에 옛 검색 결과가 다시 캐시되지 않게 함)
+	//(커밋 전에 다른 요청이 옛 데이터를 다시 캐시에 넣는 경우까지 정리)
+	private void evictCatalog(Long id, Set<String> categories) {
+		catalogCache.evict(id, categories);
+		afterCommit(() -> catalogCache.evict(id, categories));
+	}
+
+	//커밋 후 실행(롤백되면 실행 안 함), 트랜잭션 밖이면 바로 실행
+	private void afterCommit(Runnable action) {
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
 	}
 
 }
@@ -0,0 +1,165 @@
+package com.example.ebook.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.ebook.domain.EntitlementGrantWriter;
+import com.example.ebook.domain.EntitlementRepository;
+import com.example.ebook.domain.EntitlementRepository.OwnedRow;
+import com.example.ebook.dto.LibraryItem;
+import com.example.ebook.dto.PageResponse;
+import com.example.ebook.entity.Ebook;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/*
+ * 이용권(소유한 이북) 관리
+ * -결제 완료 시 추가, 환불 시 삭제(entitlement 테이블)
+ * -사용자별 소유 목록(ebookId -> 이용권을 준 orderId)을 메모리에 캐시
+ *  -> "이미 구매함" 확인/다운로드 권한 확인이 조인 없이 한 번의 조회(대부분 메모리)
+ * -변경은 커밋 후 해당 사용자 캐시만 무효화(이 서버만), 다른 서버는 캐시 만료(cache-ttl-seconds)로 따라옴
+ * -캐시에 없는 책은 DB 한 행을 확인한 뒤에 "없음"으로 판단(다른 서버에서 방금 결제한 책)
+ * -내 서재 목록은 이용권 행(이북 정보 사본 포함)만 읽음, 주문/아이템 그래프를 로딩하지 않음
+ */
+@Service
+public class EntitlementService {
+
+	private static final Logger log = LoggerFactory.getLogger(EntitlementService.class);
+
+	private final EntitlementRepository entitlementRepository;
+	private final EntitlementGrantWriter entitlementGrantWriter;
+	private final LoadingCache<Long, Map<Long, Long>> ownedByUser;
+
+	public EntitlementService(EntitlementRepository entitlementRepository,
+							  EntitlementGrantWriter entitlementGrantWriter,
+							  @Value("${ebook.entitlement.cache-max-users:50000}") long cacheMaxUsers,
+							  @Value("${ebook.entitlement.cache-ttl-seconds:300}") long cacheTtlSeconds) {
+		this.entitlementRepository = entitlementRepository;
+		this.entitlementGrantWriter = entitlementGrantWriter;
+		this.ownedByUser = Caffeine.newBuilder()
+				.maximumSize(cacheMaxUsers)
+				.expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+				.recordStats()
+				.build(this::load);
+	}
+
+	public boolean owns(Long userId, Long ebookId) {
+		return grantingOrderId(userId, ebookId).isPresent();
+	}
+
+	//이 책의 이용권을 준 주문 id
+	public Optional<Long> grantingOrderId(Long userId, Long ebookId) {
+		if(userId == null || ebookId == null) {
+			return Optional.empty();
+		}
+		Long orderId = ownedByUser.get(userId).get(ebookId);
+		if(orderId != null) {
+			return Optional.of(orderId);
+		}
+		//캐시에 없으면 DB 확인, 있으면 캐시가 오래된 것이므로 다시 적재되게 무효화
+		Optional<Long> fromDb = entitlementRepository.findOrderIdByUserIdAndEbookId(userId, ebookId);
+		if(fromDb.isPresent()) {
+			ownedByUser.invalidate(userId);
+		}
+		return fromDb;
+	}
+
+	public Set<Long> ownedEbookIds(Long userId) {
+		return ownedByUser.get(userId).keySet();
+	}
+
+	//내 서재(최근 구매순), 전체 수는 소유 목록 캐시 크기 -> COUNT 쿼리 없음
+	@Transactional(readOnly = true)
+	public PageResponse<LibraryItem> library(Long userId, int page, int size) {
+		List<LibraryItem> items = entitlementRepository.findByUserIdOrderByIdDesc(userId, PageRequest.of(page, size)).stream()
+				.map(LibraryItem::from)
+				.toList();
+		return PageResponse.of(items, page, size, ownedEbookIds(userId).size());
+	}
+
+	//결제 완료된 주문의 아이템을 이용권으로(호출하는 쪽 트랜잭션에 참여)
+	//동시에 결제된 다른 주문과 같은 책이 겹쳐도 예외 없이 건너뜀(EntitlementGrantWriter)
+	@Transactional
+	public void grantForOrder(Long userId, Long orderId) {
+		entitlementRepository.flush();	//PAID 변경을 JDBC INSERT ... SELECT가 보도록
+		entitlementGrantWriter.grantForOrder(orderId, LocalDateTime.now());
+		afterCommit(() -> ownedByUser.invalidate(userId));
+	}
+
+	//환불: 이 주문이 준 이용권 삭제 후, 다른 PAID 주문으로도 가진 책은 다시 채움
+	//주문 상태를 PAID가 아닌 값으로 바꾼 뒤 호출할 것
+	@Transactional
+	public void revokeForOrder(Long userId, Long orderId) {
+		entitlementRepository.deleteByOrderId(orderId);
+		entitlementRepository.grantForUser(userId, LocalDateTime.now());
+		afterCommit(() -> ownedByUser.invalidate(userId));
+	}
+
+	//이북 제목/저자/썸네일 변경을 서재 사본에 반영(호출하는 쪽 트랜잭션에 참여)
+	@Transactional
+	public void refreshEbook(Ebook ebook) {
+		entitlementRepository.updateEbookSnapshot(ebook.getId(), ebook.getTitle(), ebook.getAuthor(), ebook.getThumbnailPath());
+	}
+
+	//테이블 도입 전 결제분 채우기, 이미 있는 건 건너뜀
+	//전체 PAID 주문을 훑는 일회성 이관 작업이라 시작 시 자동 실행하지 않음(POST /admin/jobs/entitlement-backfill)
+	@Transactional
+	public int backfill() {
+		int inserted = entitlementRepository.grantAllPaid(LocalDateTime.now());
+		entitlementRepository.fillMissingSnapshots();
+		afterCommit(ownedByUser::invalidateAll);
+		if(inserted > 0) {
+			log.info("entitlement backfill inserted {} rows", inserted);
+		}
+		return inserted;
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		CacheStats s = ownedByUser.stats();
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("cachedUsers", ownedByUser.estimatedSize());
+		m.put("hitCount", s.hitCount());
+		m.put("missCount", s.missCount());
+		m.put("hitRate", s.hitRate());
+		return m;
+	}
+
+	//---------내부 유틸-----------
+	private Map<Long, Long> load(Long userId) {
+		Map<Long, Long> owned = new HashMap<>();
+		for(OwnedRow row : entitlementRepository.findOwnedByUserId(userId)) {
+			owned.put(row.getEbookId(), row.getOrderId());
+		}
+		return Map.copyOf(owned);
+	}
+
+	private void afterCommit(Runnable action) {
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+}
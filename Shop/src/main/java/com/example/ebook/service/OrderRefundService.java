@@ -2,55 +2,216 @@ package com.example.ebook.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.ebook.client.TossPaymentClient;
+import com.example.ebook.client.TossPaymentException;
+import com.example.ebook.common.DownloadRevocations;
 import com.example.ebook.domain.DownloadTokenRepository;
 import com.example.ebook.domain.OrderRepository;
-import com.example.ebook.entity.DownloadToken;
+import com.example.ebook.domain.RefundRequestRepository;
 import com.example.ebook.entity.Order;
+import com.example.ebook.entity.RefundRequest;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * 환불 파이프라인
+ * 1) 짧은 트랜잭션: PAID 검증 -> REFUND_REQUESTED + 아웃박스(refund_request) 저장
+ * 2) 트랜잭션 밖: 토스 취소 호출(DB 커넥션을 잡지 않음)
+ * 3) 짧은 트랜잭션: CANCELLED 확정 + 다운로드 토큰 만료 + 아웃박스 DONE
+ * 2)가 실패하면 아웃박스에 기록하고 재시도 작업이 이어서 처리
+ */
 @Service
 public class OrderRefundService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderRefundService.class);
+
     private final OrderRepository orderRepository;
     private final DownloadTokenRepository tokenRepository;
     private final TossPaymentClient tossPaymentClient; //토스 API 통신용
+    private final RefundRequestRepository refundRequestRepository;
+    private final DownloadRevocations downloadRevocations;
+    private final EntitlementService entitlementService;
+    private final TransactionTemplate tx;
+
+    //재시도 최대 횟수(첫 시도 포함)
+    @Value("${ebook.refund.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    //재시도 간격 기준(지수 증가), 첫 시도 진행 중 선점 시간으로도 사용
+    @Value("${ebook.refund.retry-base-delay-seconds:30}")
+    private long retryBaseDelaySeconds = 30;
 
-    public OrderRefundService(OrderRepository orderRepository, DownloadTokenRepository tokenRepository, TossPaymentClient tossPaymentClient) {
+    @Value("${ebook.refund.worker-threads:8}")
+    private int workerThreads = 8;
+
+    //컨트롤러 요청용 작업 스레드: 요청 스레드(OSIV EntityManager)와 분리해서
+    //외부 호출 동안 커넥션이 묶이지 않게 함
+    private ExecutorService refundExecutor;
+
+    public OrderRefundService(OrderRepository orderRepository, DownloadTokenRepository tokenRepository, TossPaymentClient tossPaymentClient,
+                              RefundRequestRepository refundRequestRepository, DownloadRevocations downloadRevocations,
+                              EntitlementService entitlementService, PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.tokenRepository = tokenRepository;
         this.tossPaymentClient = tossPaymentClient;
+        this.refundRequestRepository = refundRequestRepository;
+        this.downloadRevocations = downloadRevocations;
+        this.entitlementService = entitlementService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void startExecutor() {
+        refundExecutor = Executors.newFixedThreadPool(workerThreads);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        refundExecutor.shutdown();
+    }
+
+    //비동기 환불(컨트롤러용)
+    public CompletableFuture<Void> cancelAndRefundOrderAsync(Long orderId, String cancelReason) {
+        return CompletableFuture.runAsync(() -> cancelAndRefundOrder(orderId, cancelReason), refundExecutor);
     }
 
-    @Transactional
     public void cancelAndRefundOrder(Long orderId, String cancelReason) {
-        //1. 주문 조회 및 상태 검증
+        //1. 주문 상태 검증 + 환불 요청 기록(짧은 트랜잭션)
+        RefundRequest request = tx.execute(status -> requestRefund(orderId, cancelReason));
+
+        //2~3. 외부 API 호출 후 확정, 실패하면 아웃박스에 남기고 예외 전달
+        process(request);
+    }
+
+    //시각이 된 PENDING 환불 재시도(기본 1분마다)
+    @Scheduled(fixedDelayString = "${ebook.refund.retry-interval-ms:60000}",
+            initialDelayString = "${ebook.refund.retry-interval-ms:60000}")
+    public void retryPending() {
+        List<RefundRequest> due = tx.execute(status -> refundRequestRepository
+                .findByStatusAndNextAttemptAtBeforeOrderByIdAsc("PENDING", LocalDateTime.now(), PageRequest.of(0, 50)));
+
+        for(RefundRequest request : due) {
+            //먼저 선점(동시에 다른 곳에서 같은 요청을 처리하지 않도록)
+            Integer claimed = tx.execute(status -> refundRequestRepository.claim(
+                    request.getId(), request.getNextAttemptAt(), LocalDateTime.now().plusSeconds(retryBaseDelaySeconds)));
+            if(claimed == null || claimed == 0) {
+                continue;
+            }
+            try {
+                process(request);
+                log.info("refund retry succeeded: refundRequestId={}, orderId={}", request.getId(), request.getOrderId());
+            } catch(RuntimeException e) {
+                log.warn("refund retry failed: refundRequestId={}, orderId={}, attempts={}: {}",
+                        request.getId(), request.getOrderId(), request.getAttempts() + 1, e.getMessage());
+            }
+        }
+    }
+
+    //---------내부 유틸-----------
+    private RefundRequest requestRefund(Long orderId, String cancelReason) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다."));
 
-       if(!"PAID".equals(order.getStatus())) {
+        if(!"PAID".equals(order.getStatus())) {
             throw new IllegalStateException("결제 완료 상태의 주문만 취소할 수 있습니다.");
-       }
+        }
+
+        //취소 진행 중: 이 상태부터 다운로드 불가(PAID 아님), 중복 환불 요청도 막힘
+        order.setStatus("REFUND_REQUESTED");
 
-       //2.외부 API 호출(토스페이먼츠 결제 취소)
-       //에러 시 DB업데이트 로직은 실행되지 않고 롤백됨
-       tossPaymentClient.cancelPayment(order.getOrderNumber(), cancelReason);
+        RefundRequest request = new RefundRequest(order.getId(), order.getOrderNumber(), order.getPaymentKey(), cancelReason,
+                LocalDateTime.now().plusSeconds(retryBaseDelaySeconds));
+        refundRequestRepository.save(request);
+        return request;
+    }
+
+    private void process(RefundRequest request) {
+        try {
+            //외부 API 호출(토스페이먼츠 결제 취소): 트랜잭션 밖
+            tossPaymentClient.cancelPayment(request.getOrderNumber(), request.getPaymentKey(), request.getCancelReason());
+        } catch(TossPaymentException e) {
+            //이전 시도가 토스에서는 취소됐는데 응답을 못 받은 경우(타임아웃 후 재시도): 취소 성공으로 확정
+            if(!e.isAlreadyCanceled()) {
+                recordFailure(request, e);
+                throw e;
+            }
+            log.info("refund already canceled at Toss, finalizing: orderId={}", request.getOrderId());
+        } catch(RuntimeException e) {
+            recordFailure(request, e);
+            throw e;
+        }
+        tx.executeWithoutResult(status -> complete(request));
 
-       //내부 DB: 주문 상태를 취소로 변경
-       order.setStatus("CANCELLED");
-       order.setCanceledAt(LocalDateTime.now());
+        //커밋 후: 이 서버 메모리 목록에 등록(다른 서버는 다운로드 때 주문 상태 확인으로 거절)
+        downloadRevocations.revokeOrder(request.getOrderId());
+    }
 
-       //내부 DB: 해당 주문으로 발급된 모든 다운로드 토큰 찾아서 즉시 만료 처리(핵심!)
-       List<DownloadToken> tokens = tokenRepository.findByOrderId(order.getId());
-       for(DownloadToken token : tokens) {
-        token.expireNow();
-       }
+    //취소 확정: 주문 CANCELLED + 토큰 만료 + 아웃박스 DONE
+    private void complete(RefundRequest request) {
+        Order order = orderRepository.findById(request.getOrderId())
+                .orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다."));
 
-       //더티 체킹(Dirty Checking) 덕분에 별도로 repository.save()를 안해도
-       // 트랜잭션이 끝날 떄 Order의 상태와 Token의 만료 시간이 DB에 자동으로 UPDATE
+        if("REFUND_REQUESTED".equals(order.getStatus())) {
+            order.setStatus("CANCELLED");
+            order.setCanceledAt(LocalDateTime.now());
+            entitlementService.revokeForOrder(order.getUserId(), order.getId());
+        }
+
+        //해당 주문으로 발급된 모든 다운로드 토큰 즉시 만료(토큰 수와 무관하게 UPDATE 1회)
+        tokenRepository.expireAllByOrderId(order.getId(), LocalDateTime.now());
+
+        refundRequestRepository.markDone(request.getId());
+        //더티 체킹으로 커밋 때 Order UPDATE
+    }
+
+    //실패 기록: 일시 오류면 재시도 예약, 토스가 거절(4xx)했으면 주문을 PAID로 되돌림
+    private void recordFailure(RefundRequest request, RuntimeException e) {
+        boolean retryable = isRetryable(e);
+        int attempts = request.getAttempts() + 1;
+        String error = e.getMessage() == null ? e.getClass().getSimpleName()
+                : e.getMessage().substring(0, Math.min(500, e.getMessage().length()));
+
+        tx.executeWithoutResult(status -> {
+            if(retryable && attempts < maxAttempts) {
+                long delay = retryBaseDelaySeconds << Math.min(attempts - 1, 6);
+                refundRequestRepository.markAttemptFailed(request.getId(), "PENDING", error, LocalDateTime.now().plusSeconds(delay));
+                return;
+            }
+
+            refundRequestRepository.markAttemptFailed(request.getId(), "FAILED", error, LocalDateTime.now());
+            if(retryable) {
+                //취소 여부를 알 수 없으므로 REFUND_REQUESTED 유지, 수동 확인 필요
+                log.error("refund gave up after {} attempts: orderId={}, error={}", attempts, request.getOrderId(), error);
+                return;
+            }
+            orderRepository.findById(request.getOrderId()).ifPresent(order -> {
+                if("REFUND_REQUESTED".equals(order.getStatus())) {
+                    order.setStatus("PAID");
+                }
+            });
+        });
+    }
 
+    //통신 오류/타임아웃(-1), 5xx, 429는 재시도
+    private static boolean isRetryable(RuntimeException e) {
+        if(e instanceof TossPaymentException tpe) {
+            int code = tpe.getStatusCode();
+            return code < 0 || code >= 500 || code == 429;
+        }
+        return true;
     }
 }
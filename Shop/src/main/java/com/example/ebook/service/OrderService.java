@@ -1,25 +1,29 @@
 package com.example.ebook.service;
 
-import com.example.ebook.controller.AdminEbookController;
-import com.example.ebook.controller.AdminOrderController;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import com.example.ebook.domain.CartItemRepository;
 import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.domain.OrderItemBatchWriter;
 import com.example.ebook.domain.OrderItemRepository;
 import com.example.ebook.domain.OrderRepository;
-import com.example.ebook.dto.CartLine;
+import com.example.ebook.domain.OrderRepository.OrderHistoryRow;
 import com.example.ebook.dto.OrderDetail;
 import com.example.ebook.dto.OrderLine;
 import com.example.ebook.dto.OrderSummary;
+import com.example.ebook.dto.PageResponse;
+import com.example.ebook.entity.Cart;
 import com.example.ebook.entity.CartItem;
 import com.example.ebook.entity.Ebook;
 import com.example.ebook.entity.Order;
@@ -35,26 +39,25 @@ import com.example.ebook.entity.OrderItem;
 @Transactional	//중간에 에러나면 안되기 때문에 전부 롤백
 public class OrderService {
 
-	private final AdminOrderController adminOrderController;
-    private final AdminEbookController adminEbookController;
-    private final OrderRepository orderRepository;
+	private final OrderRepository orderRepository;
 	private final CartItemRepository cartItemRepository;
-	private final CartService cartService;
 	private final EbookRepository ebookRepository;
 	private final OrderItemRepository orderItemRepository;
+	private final OrderItemBatchWriter orderItemBatchWriter;
+	private final EntitlementService entitlementService;
 	
 	public OrderService(OrderRepository orderRepository,
 						CartItemRepository cartItemRepository,
-						CartService cartService,
 						EbookRepository ebookRepository,
-						OrderItemRepository orderItemRepository, AdminEbookController adminEbookController, AdminOrderController adminOrderController) {
+						OrderItemRepository orderItemRepository,
+						OrderItemBatchWriter orderItemBatchWriter,
+						EntitlementService entitlementService) {
 		this.orderRepository = orderRepository;
 		this.cartItemRepository = cartItemRepository;
-		this.cartService = cartService;
 		this.ebookRepository = ebookRepository;
 		this.orderItemRepository = orderItemRepository;
-        this.adminEbookController = adminEbookController;
-        this.adminOrderController = adminOrderController;
+		this.orderItemBatchWriter = orderItemBatchWriter;
+		this.entitlementService = entitlementService;
 	}
 	
 	/*
@@ -62,6 +65,10 @@ public class OrderService {
 	 * 장바구니가 비어 있으면 400
 	 * 비활성 이북이 있으면 400
 	 * 성공 시: 주문과 주문아이템 저장, 장바구니 비움
+	 * 쿼리 수가 장바구니 크기와 무관하도록: 조회 1번(join fetch) + 주문 INSERT + 아이템 배치 INSERT + DELETE 1번
+	 * 반환값: 새로 만든 주문은 헤더(id/번호/상태/금액)만 채워짐
+	 *  -아이템은 JDBC 배치로 저장되어 영속성 컨텍스트에 없으므로 getItems()는 비어 있음
+	 *  -아이템이 필요하면 getDetail(userId, order.getId())로 조회
 	 */
 	public Order createFromCart(Long userId) {		//주문 생성
 		//PENDING 주문이 있으면 새로 만들지 말고 기존 것 반환(중복방지)
@@ -70,25 +77,19 @@ public class OrderService {
 			return existing.get();
 		}
 
-		List<CartLine> lines = cartService.getItems(userId);		//장바구니 라인 조회
-		if(lines.isEmpty()) {
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
-		}
-		
-		//유저 장바구니 확보
-		var cart = cartService.getOrCreateCart(userId);
-		
-		//장바구니 항목 로드(트랜잭션 안이라 LAZY 접근 안전)
-		List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
+		//장바구니 항목 + 장바구니 + 이북을 한 번에 로드
+		List<CartItem> items = cartItemRepository.findWithEbookByUserId(userId);
 		if(items.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
 		}
+		Cart cart = items.get(0).getCart();
 		
 		//주문 헤더 생성
 		String orderNo = generateOrderNumber();
 		Order order = new Order(userId, orderNo, "PENDING");
 		
 		//장바구니 -> 주문아이템 변환 + 합계 계산
+		List<OrderItem> orderItems = new ArrayList<>(items.size());
 		BigDecimal total = BigDecimal.ZERO;
 		for(CartItem ci : items) {
 			//상태 체크: 비활성 상품을 주문하려 하면 막음
@@ -107,7 +108,7 @@ public class OrderService {
 					ebook.getPrice(),
 					ci.getQuantity()
 			);
-			order.addItem(oi);	//양방향 연관 설정 + 리스트에 추가
+			orderItems.add(oi);
 			total = total.add(oi.getSubTotal());	//합계 증가
 		}
 		
@@ -115,11 +116,13 @@ public class OrderService {
 		order.setTotalAmount(total);
 		order.setFinalAmount(total);
 		
-		//저장
+		//저장: 헤더는 JPA(id 필요), 아이템은 JDBC 배치
+		//아이템은 영속성 컨텍스트를 거치지 않으므로 반환되는 order.getItems()는 비어 있음(CreatedOrderResponse는 헤더만 사용)
 		Order saved = orderRepository.save(order);
+		orderItemBatchWriter.insertAll(saved.getId(), orderItems);
 
-		//장바구니 비우기
-		cartItemRepository.deleteAllByCartId(cart.getId());
+		//장바구니 비우기(DELETE 한 문장)
+		cartItemRepository.bulkDeleteByCartId(cart.getId());
 		cart.touch();
 		
 		return saved;
@@ -188,6 +191,9 @@ public class OrderService {
 		//더티체킹으로 flush 되지만 명시적으로 저장해도 무방
 		orderRepository.save(order);
 
+		//주문 아이템을 이용권으로
+		entitlementService.grantForOrder(userId, orderId);
+
 	}
 	
 	//주문 취소: PENDING만 가능
@@ -211,47 +217,32 @@ public class OrderService {
 		orderRepository.save(order);	//명시 저장
 	}
 
-	//내 주문 목록 조회
+	//내 주문 목록(페이지): before보다 작은 id의 주문을 최신순으로 size개
+	//주문 엔티티/아이템을 로딩하지 않고 프로젝션 한 번으로 조회(size+1개 읽어서 다음 페이지 여부 판단)
 	@Transactional(readOnly = true)
-	public List<OrderSummary> getMyOrders(Long userId) {
+	public PageResponse<OrderSummary> getMyOrderHistory(Long userId, Long before, int size, boolean withTotal) {
 		if(userId == null) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
 		}
+		long cursor = before == null ? Long.MAX_VALUE : before;
+		List<OrderHistoryRow> rows = orderRepository.findHistoryByUserId(userId, cursor, PageRequest.of(0, size + 1));
+		boolean hasNext = rows.size() > size;
+		List<OrderSummary> items = rows.stream().limit(size).map(OrderService::toSummary).toList();
+		Long nextCursor = hasNext ? items.get(items.size() - 1).orderId() : null;
+		long total = withTotal ? orderRepository.countByUserId(userId) : -1;
+		return PageResponse.ofCursor(items, size, total, nextCursor);
+	}
 
-		// return orderRepository.findByUserIdOrderByIdDesc(userId).stream()
-		// 		.map(o -> new OrderSummary(
-		// 			o.getId(),
-		// 			o.getOrderNumber(),
-		// 			o.getStatus(),
-		// 			o.getTotalAmount(),
-		// 			o.getFinalAmount(),
-		// 			o.getCreatedAt()
-		// 		))
-		// 		.toList();
-
-		/* N + 1 장애 테스트 코드 */
-		//1. 주문 목록 조회 (쿼리 1번 실행)
-		//List<Order> orders = orderRepository.findByUserIdOrderByIdDesc(userId);
-
-		List<Order> orders = orderRepository.findAllWithItemsByUserId(userId);
-
-		//2. 루프를 돌며 DTO로 변환
-		return orders.stream()
-				.map(o -> {
-					//장애 유발 지점) 각 주문의 아이템 목록 중 첫 번째로 상품의 제목 가져옴
-					//지연 로딩이 설정되어 있어서, 여기서 주문 개수만큼 쿼리 추가 실행
-					String title = o.getItems().isEmpty() ? "상품 없음" : o.getItems().get(0).getTitleSnap();
-					String summaryTitle = o.getItems().size() > 1 ? title + " 외 " + (o.getItems().size() - 1) + "건" : title;
+	//내 주문 목록 조회(전체)
+	@Transactional(readOnly = true)
+	public List<OrderSummary> getMyOrders(Long userId) {
+		if(userId == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId is required");
+		}
 
-					return new OrderSummary(
-						o.getId(),
-						summaryTitle,	//주문 번호 대신 상품명을 넣어서 테스트
-						o.getStatus(),
-						o.getTotalAmount(),
-						o.getFinalAmount(),
-						o.getCreatedAt()
-					);
-				})
+		//첫 상품명/상품 수를 SQL에서 계산한 프로젝션 사용(주문+아이템 fetch join 대신)
+		return orderRepository.findHistoryByUserId(userId, Long.MAX_VALUE, Pageable.unpaged()).stream()
+				.map(OrderService::toSummary)
 				.toList();
 	}
 
@@ -270,8 +261,8 @@ public class OrderService {
 				String.format("[%s] 도서는 현재 판매 중이거나 구매 가능한 상태가 아닙니다.", ebook.getTitle()));
 		}
 		
-		//구매완료 확인(PAID) - 예외발생
-		if(orderRepository.existsByUserIdAndEbookIdAndStatus(userId, ebookId, "PAID")) {
+		//구매완료 확인(이용권, 대부분 메모리 캐시) - 예외발생
+		if(entitlementService.owns(userId, ebookId)) {
 			throw new ResponseStatusException(HttpStatus.CONFLICT, "이미 구해하신 전자책 입니다.");
 		}
 
@@ -313,6 +304,20 @@ public class OrderService {
     }
 
 	//---------내부 유틸-----------
+	//목록 제목: "첫 상품명 외 N건"
+	private static OrderSummary toSummary(OrderHistoryRow row) {
+		long count = row.getItemCount() == null ? 0 : row.getItemCount();
+		String title = count == 0 || row.getFirstTitle() == null ? "상품 없음" : row.getFirstTitle();
+		String summaryTitle = count > 1 ? title + " 외 " + (count - 1) + "건" : title;
+		return new OrderSummary(
+				row.getId(),
+				summaryTitle,
+				row.getStatus(),
+				row.getTotalAmount(),
+				row.getFinalAmount(),
+				row.getCreatedAt());
+	}
+
 	private String generateOrderNumber() {
 		// 길이 20자 맞춤: "ORD-"(4) + 16자리 대문자 HEX
 	    String hex = java.util.UUID.randomUUID().toString().replace("-", "");
@@ -0,0 +1,230 @@
+package com.example.ebook.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ebook.client.TossPaymentClient;
+import com.example.ebook.client.TossPaymentException;
+import com.example.ebook.domain.OrderRepository;
+import com.example.ebook.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * 결제 승인(토스 confirm) 멱등 처리
+ * -키: 주문번호 + paymentKey
+ * -같은 키로 동시에 들어온 요청은 진행 중인 한 번의 호출 결과를 같이 받음
+ * -확정된 결과(성공/토스 거절)는 일정 시간 캐시 -> 더블클릭/클라이언트 재시도는 토스/DB까지 안 감
+ * -통신 오류/5xx는 캐시하지 않음(다시 시도 가능)
+ * -토스 승인 후 주문 반영이 실패하면 승인 응답을 보관 -> 재시도 때 토스 재호출 없이 반영만 다시
+ * -토스가 ALREADY_PROCESSED_PAYMENT로 거절하면 결제 조회로 같은 주문인지 확인하고 반영
+ * -토스 응답 뒤 DB 작업(주문 반영/이용권 지급/PAID 확인)은 결제 작업 스레드에서
+ *  (HttpClient 응답 스레드를 DB 대기로 잡지 않게, 동시 DB 작업 수도 스레드 수로 제한)
+ */
+@Service
+public class PaymentService {
+
+	//승인 결과(컨트롤러 응답용), retryable: 통신 오류 등으로 다시 시도해볼 수 있는 실패
+	public record ConfirmResult(boolean paid, boolean retryable, String message) {}
+
+	private final TossPaymentClient tossPaymentClient;
+	private final OrderRepository orderRepository;
+	private final EntitlementService entitlementService;
+	private final TransactionTemplate tx;
+
+	//토스 응답 이후 DB 작업용 스레드(OrderRefundService의 환불 스레드와 같은 방식)
+	private final ExecutorService paymentExecutor;
+
+	private final ConcurrentHashMap<String, CompletableFuture<ConfirmResult>> inFlight = new ConcurrentHashMap<>();
+	private final Cache<String, ConfirmResult> outcomes;
+	//토스 승인은 됐는데 주문 반영(markPaid)이 아직 커밋되지 않은 결제(키 -> 승인 응답)
+	private final Cache<String, Map<String, Object>> approved;
+
+	private final LongAdder tossCalls = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder cachedHits = new LongAdder();
+
+	public PaymentService(TossPaymentClient tossPaymentClient, OrderRepository orderRepository, EntitlementService entitlementService,
+						  PlatformTransactionManager transactionManager,
+						  @Value("${ebook.payment.confirm-cache-seconds:600}") long confirmCacheSeconds,
+						  @Value("${ebook.payment.worker-threads:8}") int workerThreads) {
+		this.tossPaymentClient = tossPaymentClient;
+		this.orderRepository = orderRepository;
+		this.entitlementService = entitlementService;
+		this.tx = new TransactionTemplate(transactionManager);
+		this.paymentExecutor = Executors.newFixedThreadPool(workerThreads);
+		this.outcomes = Caffeine.newBuilder()
+				.maximumSize(10_000)
+				.expireAfterWrite(Duration.ofSeconds(confirmCacheSeconds))
+				.build();
+		this.approved = Caffeine.newBuilder()
+				.maximumSize(10_000)
+				.expireAfterWrite(Duration.ofDays(1))
+				.build();
+	}
+
+	@PreDestroy
+	void stopExecutor() {
+		paymentExecutor.shutdown();
+	}
+
+	public CompletableFuture<ConfirmResult> confirm(String paymentKey, String orderNumber, long amount) {
+		if(paymentKey == null || paymentKey.isBlank() || orderNumber == null || orderNumber.isBlank()) {
+			return CompletableFuture.completedFuture(new ConfirmResult(false, false, "paymentKey와 orderId가 필요합니다."));
+		}
+		String key = orderNumber + ":" + paymentKey;
+
+		ConfirmResult cached = outcomes.getIfPresent(key);
+		if(cached != null) {
+			cachedHits.increment();
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		CompletableFuture<ConfirmResult> mine = new CompletableFuture<>();
+		CompletableFuture<ConfirmResult> existing = inFlight.putIfAbsent(key, mine);
+		if(existing != null) {
+			coalesced.increment();
+			return existing;
+		}
+
+		//진행 중 등록 직전에 앞선 호출이 끝났을 수 있으므로 한 번 더 확인
+		cached = outcomes.getIfPresent(key);
+		if(cached != null) {
+			inFlight.remove(key, mine);
+			mine.complete(cached);
+			cachedHits.increment();
+			return mine;
+		}
+
+		callToss(key, paymentKey, orderNumber, amount).whenComplete((result, e) -> {
+			//캐시에 먼저 넣고 진행 중 목록에서 제거 -> 그 사이 요청도 결과를 받음
+			if(result != null && !result.retryable()) {
+				outcomes.put(key, result);
+			}
+			inFlight.remove(key, mine);
+			if(e != null) {
+				mine.completeExceptionally(e);
+			} else {
+				mine.complete(result);
+			}
+		});
+		return mine;
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("tossCalls", tossCalls.sum());
+		m.put("coalesced", coalesced.sum());
+		m.put("cachedHits", cachedHits.sum());
+		m.put("inFlight", inFlight.size());
+		m.put("cachedOutcomes", outcomes.estimatedSize());
+		return m;
+	}
+
+	//---------내부 유틸-----------
+	private CompletableFuture<ConfirmResult> callToss(String key, String paymentKey, String orderNumber, long amount) {
+		//앞선 시도에서 토스 승인은 끝났고 주문 반영(markPaid)만 실패 -> 토스는 다시 부르지 않고 반영만 재시도
+		Map<String, Object> approvedPayment = approved.getIfPresent(key);
+		if(approvedPayment != null) {
+			return CompletableFuture.supplyAsync(() -> finishPaid(key, orderNumber, paymentKey, approvedPayment), paymentExecutor);
+		}
+
+		tossCalls.increment();
+		return tossPaymentClient.confirmPaymentAsync(paymentKey, orderNumber, amount)
+				.thenApplyAsync(payment -> {
+					approved.put(key, payment);
+					return finishPaid(key, orderNumber, paymentKey, payment);
+				}, paymentExecutor)
+				.exceptionallyComposeAsync(e -> {
+					RuntimeException cause = TossPaymentClient.unwrap(e);
+					if(cause instanceof TossPaymentException tpe && tpe.getStatusCode() >= 400 && tpe.getStatusCode() < 500) {
+						//캐시 만료/재시작 뒤 재시도: 토스는 이미 처리된 결제라 거절하지만 주문은 PAID
+						if(isPaid(orderNumber)) {
+							return CompletableFuture.completedFuture(new ConfirmResult(true, false, "결제 성공"));
+						}
+						//토스는 승인했는데 주문 반영 전에 결과를 잃음(재시작 등) -> 결제를 조회해 같은 주문이면 반영
+						if(tpe.isAlreadyProcessed()) {
+							return recoverProcessed(key, paymentKey, orderNumber);
+						}
+						cause.printStackTrace();
+						return CompletableFuture.completedFuture(new ConfirmResult(false, false, "결제 승인 실패"));
+					}
+					cause.printStackTrace();
+					return CompletableFuture.completedFuture(new ConfirmResult(false, true, "토스 승인 중 오류: " + cause.getMessage()));
+				}, paymentExecutor);
+	}
+
+	//이미 승인된 결제: 토스 결제 조회로 주문번호/상태를 확인한 뒤에만 PAID 처리
+	private CompletableFuture<ConfirmResult> recoverProcessed(String key, String paymentKey, String orderNumber) {
+		return tossPaymentClient.getPaymentAsync(paymentKey)
+				.handleAsync((payment, e) -> {
+					if(e != null) {
+						RuntimeException cause = TossPaymentClient.unwrap(e);
+						cause.printStackTrace();
+						return new ConfirmResult(false, true, "토스 결제 조회 중 오류: " + cause.getMessage());
+					}
+					if(!orderNumber.equals(payment.get("orderId")) || !"DONE".equals(payment.get("status"))) {
+						return new ConfirmResult(false, false, "결제 승인 실패");
+					}
+					approved.put(key, payment);
+					return finishPaid(key, orderNumber, paymentKey, payment);
+				}, paymentExecutor);
+	}
+
+	//주문 반영 실패는 다시 시도 가능한 실패로 응답(승인 응답은 approved에 남아 있음)
+	private ConfirmResult finishPaid(String key, String orderNumber, String paymentKey, Map<String, Object> payment) {
+		try {
+			tx.executeWithoutResult(status -> markPaid(orderNumber, paymentKey, payment));
+		} catch(RuntimeException e) {
+			e.printStackTrace();
+			return new ConfirmResult(false, true, "결제는 승인됐지만 주문 반영에 실패했습니다. 다시 시도해주세요.");
+		}
+		approved.invalidate(key);
+		return new ConfirmResult(true, false, "결제 성공");
+	}
+
+	private boolean isPaid(String orderNumber) {
+		Boolean paid = tx.execute(status -> orderRepository.findByOrderNumber(orderNumber)
+				.map(o -> "PAID".equals(o.getStatus()))
+				.orElse(false));
+		return Boolean.TRUE.equals(paid);
+	}
+
+	//PENDING -> PAID(OrderService.markPaid와 동일하게 결제시각 기록)
+	//승인 응답의 paymentKey/결제수단/승인금액도 저장 -> 취소 때 조회 호출 생략
+	private void markPaid(String orderNumber, String paymentKey, Map<String, Object> payment) {
+		Order order = orderRepository.findByOrderNumber(orderNumber)
+				.orElseThrow(() -> new IllegalArgumentException("주문을 찾을 수 없습니다."));
+
+		if(!"PAID".equals(order.getStatus())) {
+			order.setStatus("PAID");
+			order.setPaidAt(LocalDateTime.now());
+			entitlementService.grantForOrder(order.getUserId(), order.getId());
+		}
+		Object key = payment.get("paymentKey");
+		order.setPaymentKey(key instanceof String k ? k : paymentKey);
+		if(payment.get("method") instanceof String method) {
+			order.setPaymentMethod(method);
+		}
+		if(payment.get("totalAmount") instanceof Number amount) {
+			order.setApprovedAmount(new BigDecimal(amount.toString()));
+		}
+		//더티체킹으로 커밋 때 UPDATE
+	}
+}
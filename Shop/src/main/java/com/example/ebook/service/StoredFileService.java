@@ -0,0 +1,150 @@
+package com.example.ebook.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ebook.common.FileStore;
+import com.example.ebook.common.FileStore.StagedContent;
+import com.example.ebook.common.MappedFileCache;
+import com.example.ebook.domain.StoredFileRepository;
+import com.example.ebook.entity.StoredFile;
+
+/*
+ * 이북 본문 파일 저장(내용 주소 + 참조 수)
+ * -업로드를 스트리밍으로 임시 파일에 쓰면서 SHA-256 계산
+ * -같은 내용이 이미 있으면 파일은 버리고 참조 수만 +1(같은 PDF를 여러 번 올려도 디스크에 한 번)
+ * -이북 삭제/교체 시 release로 -1, 0이 되면 파일 삭제
+ * 업로드/삭제 여부는 DB가 판정(stored_file 행 잠금), 서버가 여러 대(S3)여도 업로드 중인 파일이 지워지지 않음
+ */
+@Service
+public class StoredFileService {
+
+	private static final Logger log = LoggerFactory.getLogger(StoredFileService.class);
+
+	private final StoredFileRepository storedFileRepository;
+	private final FileStore fileStore;
+	private final MappedFileCache mappedFileCache;
+	private final TransactionTemplate tx;
+
+	private final LongAdder stored = new LongAdder();
+	private final LongAdder deduplicated = new LongAdder();
+	private final LongAdder savedBytes = new LongAdder();
+	private final LongAdder released = new LongAdder();
+
+	public StoredFileService(StoredFileRepository storedFileRepository, FileStore fileStore,
+							 MappedFileCache mappedFileCache, PlatformTransactionManager transactionManager) {
+		this.storedFileRepository = storedFileRepository;
+		this.fileStore = fileStore;
+		this.mappedFileCache = mappedFileCache;
+		//release는 이북 삭제/교체 트랜잭션의 afterCommit에서 불림 -> 이미 커밋된 트랜잭션에 합류하지 않고 새 트랜잭션으로
+		this.tx = new TransactionTemplate(transactionManager);
+		this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	//업로드 스트림 저장 후 상대 경로(Ebook.filePath) 반환
+	//파일 쓰기/해시(오래 걸리는 부분)는 트랜잭션 밖에서
+	public String store(InputStream in) {
+		StagedContent staged;
+		try {
+			staged = fileStore.stage(in);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		String hash = staged.sha256();
+		String path = FileStore.contentPath(hash);
+		boolean created;
+		try {
+			created = storeRef(staged, hash, path);
+		} catch(DataIntegrityViolationException e) {
+			//다른 서버가 같은 내용 행을 먼저 넣음 -> 이번엔 그 행을 잠그고 참조 +1
+			created = storeRef(staged, hash, path);
+		} finally {
+			fileStore.discard(staged);
+		}
+
+		if(created) {
+			stored.increment();
+		} else {
+			deduplicated.increment();
+			savedBytes.add(staged.size());
+		}
+		return path;
+	}
+
+	//참조 하나 해제(이북 삭제/파일 교체), 마지막 참조였으면 파일 삭제
+	//내용 주소 저장 이전의 파일(UUID 이름)은 참조 기록이 없어서 파일은 건드리지 않음
+	public void release(String path) {
+		mappedFileCache.invalidate(path);	//이북이 더 이상 가리키지 않는 경로의 매핑 반납
+		if(path == null || !path.startsWith(FileStore.CONTENT_DIR + "/")) {
+			return;
+		}
+		Boolean unreferenced = tx.execute(status -> {
+			//행을 잠근 채로 판단: 잠금이 풀릴 때까지 같은 내용을 올리는 쪽은 기다렸다가 행이 없으면 새로 올림
+			if(storedFileRepository.findByPathForUpdate(path).isEmpty()) {
+				return false;
+			}
+			storedFileRepository.decrementRef(path);
+			//조건부 삭제(참조 0일 때만)가 성공했을 때만 파일 삭제, 잠금 안에서 지워서 새 업로드와 엇갈리지 않음
+			if(storedFileRepository.deleteUnreferenced(path) == 0) {
+				return false;
+			}
+			deleteQuietly(path);
+			return true;
+		});
+		if(Boolean.TRUE.equals(unreferenced)) {
+			released.increment();
+		}
+	}
+
+	//모니터링용
+	public Map<String, Object> stats() {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("files", storedFileRepository.count());
+		m.put("stored", stored.sum());
+		m.put("deduplicated", deduplicated.sum());
+		m.put("savedBytes", savedBytes.sum());
+		m.put("released", released.sum());
+		return m;
+	}
+
+	//---------내부 유틸-----------
+	//DB가 판정: 행을 잠그거나(있으면 참조 +1) 먼저 넣은 뒤(없으면 참조 1) 같은 트랜잭션 안에서 저장소에 올림
+	//-행이 잠겨 있는 동안 다른 서버의 해제는 파일을 지울 수 없고, 같은 내용 업로드는 커밋까지 기다림
+	//-commit은 저장소에 이미 있는지 다시 확인하고 없을 때만 올림(새로 만들었으면 true)
+	private boolean storeRef(StagedContent staged, String hash, String path) {
+		Boolean created = tx.execute(status -> {
+			if(storedFileRepository.findByContentHashForUpdate(hash).isPresent()) {
+				storedFileRepository.incrementRef(hash);
+			} else {
+				storedFileRepository.saveAndFlush(new StoredFile(hash, path, staged.size()));
+			}
+			try {
+				return fileStore.commit(staged);
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);	//롤백 -> 참조 기록도 남지 않음
+			}
+		});
+		return Boolean.TRUE.equals(created);
+	}
+
+	private void deleteQuietly(String path) {
+		try {
+			fileStore.deleteContent(path);
+		} catch(IOException e) {
+			log.warn("stored file delete failed: {} ({})", path, e.getMessage());
+		}
+	}
+}
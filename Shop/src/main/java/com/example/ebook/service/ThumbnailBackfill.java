@@ -0,0 +1,75 @@
+package com.example.ebook.service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.ebook.common.FileStore;
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.domain.EbookRepository.ThumbnailRow;
+
+/*
+ * 축소본 도입 전에 올라간 썸네일의 폭별 축소본 채우기
+ * 만든 뒤 실제로 있는 폭을 ebook.thumbnail_widths에 기록(응답에는 기록된 폭만 나감)
+ * 관리자 수동 실행(POST /admin/jobs/thumbnail-variants), 이미 있는 축소본은 건너뜀
+ * 폭이 바뀐 이북만 UPDATE하고 카탈로그 캐시에서 지움
+ */
+@Service
+public class ThumbnailBackfill {
+
+	private static final Logger log = LoggerFactory.getLogger(ThumbnailBackfill.class);
+
+	private final EbookRepository ebookRepository;
+	private final FileStore fileStore;
+	private final EbookCatalogCache catalogCache;
+
+	public ThumbnailBackfill(EbookRepository ebookRepository, FileStore fileStore, EbookCatalogCache catalogCache) {
+		this.ebookRepository = ebookRepository;
+		this.fileStore = fileStore;
+		this.catalogCache = catalogCache;
+	}
+
+	//새로 만든 축소본 수 반환
+	public int backfill() {
+		int created = 0;
+		int updated = 0;
+		//같은 썸네일을 여러 이북이 쓰면 축소본 생성/디스크 확인은 한 번만
+		Map<String, String> widthsByThumbnail = new HashMap<>();
+		Set<String> failed = new HashSet<>();
+		for(ThumbnailRow row : ebookRepository.findAllThumbnails()) {
+			String thumbnail = row.getThumbnailPath();
+			if(failed.contains(thumbnail)) {
+				continue;
+			}
+			try {
+				if(!widthsByThumbnail.containsKey(thumbnail)) {
+					created += fileStore.createThumbnailVariants(thumbnail);
+					widthsByThumbnail.put(thumbnail, fileStore.existingVariantWidths(thumbnail));
+				}
+				String widths = widthsByThumbnail.get(thumbnail);
+				if(Objects.equals(widths, row.getThumbnailWidths())) {
+					continue;
+				}
+				ebookRepository.updateThumbnailWidths(row.getId(), widths);
+				//벌크 UPDATE는 캐시를 거치지 않으므로 직접 제거
+				catalogCache.evict(row.getId(), Set.of(EbookCatalogCache.normalizeCategory(row.getCategory())));
+				updated++;
+			} catch(IOException | RuntimeException e) {
+				//깨진 이미지 하나 때문에 나머지가 멈추지 않게
+				log.warn("thumbnail variants failed for {}: {}", thumbnail, e.getMessage());
+				failed.add(thumbnail);
+			}
+		}
+		if(created > 0 || updated > 0) {
+			log.info("thumbnail backfill created {} variants, updated {} ebooks", created, updated);
+		}
+		return created;
+	}
+}
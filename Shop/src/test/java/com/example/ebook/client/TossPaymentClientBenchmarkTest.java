@@ -0,0 +1,52 @@
+package com.example.ebook.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * 스텁 토스 서버(응답 50ms) 상대로 승인 요청 처리량 측정
+ * 순차(요청 스레드가 응답까지 대기하던 방식) vs 비동기 동시 요청(동시 요청 32개 제한 -> 커넥션도 32개 이하)
+ * 일반 test 태스크에서는 제외, 실행: gradle benchmark
+ */
+@Tag("benchmark")
+class TossPaymentClientBenchmarkTest {
+
+	private static final int REQUESTS = 200;
+	private static final long LATENCY_MS = 50;
+
+	@Test
+	void sequential_vs_async() throws Exception {
+		try(TossStubServer stub = new TossStubServer()) {
+			stub.setLatencyMs(LATENCY_MS);
+			TossPaymentClient client = new TossPaymentClient(new ObjectMapper(), stub.baseUrl(), "test_sk", 3000, 10000, 32);
+
+			//워밍업
+			client.confirmPaymentAsync("pk_w", "ORD-W", 1000).join();
+
+			long start = System.nanoTime();
+			for(int i = 0; i < REQUESTS / 10; i++) {
+				client.confirmPaymentAsync("pk_" + i, "ORD-" + i, 1000).join();
+			}
+			double sequentialMs = (System.nanoTime() - start) / 1_000_000.0;
+
+			start = System.nanoTime();
+			List<CompletableFuture<?>> futures = new ArrayList<>();
+			for(int i = 0; i < REQUESTS; i++) {
+				futures.add(client.confirmPaymentAsync("pk_" + i, "ORD-" + i, 1000));
+			}
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+			double asyncMs = (System.nanoTime() - start) / 1_000_000.0;
+
+			System.out.printf("[benchmark] toss confirm sequential %d req: %.1fms (%.1f req/s)%n",
+					REQUESTS / 10, sequentialMs, (REQUESTS / 10) * 1000 / sequentialMs);
+			System.out.printf("[benchmark] toss confirm async %d req: %.1fms (%.1f req/s), connections=%d%n",
+					REQUESTS, asyncMs, REQUESTS * 1000 / asyncMs, stub.connectionCount());
+		}
+	}
+}
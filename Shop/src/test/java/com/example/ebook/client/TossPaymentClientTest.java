@@ -0,0 +1,97 @@
+package com.example.ebook.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TossPaymentClientTest {
+
+	private TossStubServer stub;
+	private TossPaymentClient client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stub = new TossStubServer();
+		client = new TossPaymentClient(new ObjectMapper(), stub.baseUrl(), "test_sk", 1000, 500, 32);
+	}
+
+	@AfterEach
+	void tearDown() {
+		stub.close();
+	}
+
+	@Test
+	void 승인_응답을_비동기로_받음() {
+		Map<String, Object> payment = client.confirmPaymentAsync("pk_1", "ORD-1", 15000).join();
+
+		assertThat(payment).containsEntry("status", "DONE").containsEntry("orderId", "ORD-1");
+		assertThat(stub.lastAuthorization()).isEqualTo("Basic dGVzdF9zazo=");	//"test_sk:"
+	}
+
+	@Test
+	void 동시요청은_상한까지만_보내고_나머지는_대기() {
+		TossPaymentClient limited = new TossPaymentClient(new ObjectMapper(), stub.baseUrl(), "test_sk", 1000, 2000, 2);
+		stub.setLatencyMs(50);
+
+		List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++) {
+			futures.add(limited.confirmPaymentAsync("pk_" + i, "ORD-" + i, 1000));
+		}
+
+		assertThat(futures).allSatisfy(f -> assertThat(f.join()).containsEntry("status", "DONE"));
+		assertThat(stub.requestCount()).isEqualTo(10);
+		assertThat(stub.connectionCount()).isLessThanOrEqualTo(2);	//keep-alive 커넥션 2개만 재사용
+	}
+
+	@Test
+	void 취소는_조회후_취소요청() {
+		client.cancelPayment("ORD-1", null, "단순변심");
+
+		assertThat(stub.requestCount()).isEqualTo(2);
+	}
+
+	@Test
+	void 저장된_paymentKey가_있으면_조회없이_취소() {
+		client.cancelPayment("ORD-1", "pk_1", "단순변심");
+
+		assertThat(stub.requestCount()).isEqualTo(1);
+		assertThat(stub.lastIdempotencyKey()).isEqualTo("cancel-pk_1");	//재시도해도 같은 키
+	}
+
+	@Test
+	void 실패응답과_타임아웃은_TossPaymentException() {
+		stub.setStatusOverride(400);
+		assertThatThrownBy(() -> client.cancelPayment("ORD-1", null, "단순변심"))
+				.isInstanceOf(TossPaymentException.class)
+				.satisfies(e -> {
+					assertThat(((TossPaymentException) e).getStatusCode()).isEqualTo(400);
+					assertThat(((TossPaymentException) e).getErrorCode()).isEqualTo("STUB_ERROR");
+				});
+
+		stub.setStatusOverride(0);
+		stub.setLatencyMs(1500);
+		assertThatThrownBy(() -> client.cancelPayment("ORD-1", null, "단순변심"))
+				.isInstanceOf(TossPaymentException.class)
+				.hasCauseInstanceOf(HttpTimeoutException.class);
+	}
+
+	@Test
+	void 커넥션_재사용() {
+		for(int i = 0; i < 10; i++) {
+			client.confirmPaymentAsync("pk_" + i, "ORD-" + i, 1000).join();
+		}
+		assertThat(stub.requestCount()).isEqualTo(10);
+		assertThat(stub.connectionCount()).isEqualTo(1);
+	}
+}
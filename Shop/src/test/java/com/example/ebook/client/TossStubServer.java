@@ -0,0 +1,133 @@
+package com.example.ebook.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * 테스트/측정용 로컬 토스 스텁 서버(JDK 내장 HttpServer)
+ * -POST /v1/payments/confirm, GET /v1/payments/orders/{orderId}, POST /v1/payments/{paymentKey}/cancel
+ * -latencyMs로 응답 지연을 흉내, statusOverride로 실패 응답 흉내
+ * -요청 수와 클라이언트 포트(=커넥션) 수를 기록해서 keep-alive 재사용 확인
+ */
+public class TossStubServer implements AutoCloseable {
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newFixedThreadPool(64);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final AtomicInteger requests = new AtomicInteger();
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+	private final Map<String, String> lastAuthorization = new ConcurrentHashMap<>();
+
+	private volatile long latencyMs;
+	private volatile int statusOverride;
+
+	public TossStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/payments", this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	public void setLatencyMs(long latencyMs) {
+		this.latencyMs = latencyMs;
+	}
+
+	public void setStatusOverride(int statusOverride) {
+		this.statusOverride = statusOverride;
+	}
+
+	public int requestCount() {
+		return requests.get();
+	}
+
+	public int connectionCount() {
+		return clientPorts.size();
+	}
+
+	public String lastAuthorization() {
+		return lastAuthorization.get("value");
+	}
+
+	public String lastIdempotencyKey() {
+		return lastAuthorization.get("idempotency");
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		clientPorts.add(exchange.getRemoteAddress().getPort());
+		String auth = exchange.getRequestHeaders().getFirst("Authorization");
+		if(auth != null) {
+			lastAuthorization.put("value", auth);
+		}
+		String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+		if(idempotencyKey != null) {
+			lastAuthorization.put("idempotency", idempotencyKey);
+		}
+
+		try(InputStream in = exchange.getRequestBody()) {
+			byte[] body = in.readAllBytes();
+			if(latencyMs > 0) {
+				Thread.sleep(latencyMs);
+			}
+			if(statusOverride > 0) {
+				respond(exchange, statusOverride, Map.of("code", "STUB_ERROR", "message", "stub failure"));
+				return;
+			}
+
+			String path = exchange.getRequestURI().getPath();
+			String method = exchange.getRequestMethod();
+			if(method.equals("POST") && path.equals("/v1/payments/confirm")) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> req = objectMapper.readValue(body, Map.class);
+				respond(exchange, 200, Map.of(
+						"paymentKey", req.get("paymentKey"),
+						"orderId", req.get("orderId"),
+						"totalAmount", req.get("amount"),
+						"status", "DONE",
+						"method", "카드"));
+			} else if(method.equals("GET") && path.startsWith("/v1/payments/orders/")) {
+				String orderId = path.substring("/v1/payments/orders/".length());
+				respond(exchange, 200, Map.of("paymentKey", "pk_" + orderId, "orderId", orderId, "status", "DONE"));
+			} else if(method.equals("POST") && path.endsWith("/cancel")) {
+				respond(exchange, 200, Map.of("status", "CANCELED"));
+			} else {
+				respond(exchange, 404, Map.of("code", "NOT_FOUND"));
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, Map<String, ?> body) throws IOException {
+		byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try(OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
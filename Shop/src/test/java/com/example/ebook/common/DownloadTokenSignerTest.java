@@ -0,0 +1,57 @@
+package com.example.ebook.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.ebook.common.DownloadTokenSigner.SignedClaims;
+
+class DownloadTokenSignerTest {
+
+    private final DownloadTokenSigner signer = new DownloadTokenSigner("test-signing-key-test-signing-key");
+
+    @Test
+    @DisplayName("서명 토큰 검증 성공: 발급 시 넣은 값이 그대로 복원")
+    void verify_Success() {
+        String token = signer.sign(1L, 2L, 3L, 1_700_000_000L);
+
+        SignedClaims claims = signer.verify(token).orElseThrow();
+
+        assertTrue(token.startsWith(DownloadTokenSigner.PREFIX));
+        assertEquals(1L, claims.userId());
+        assertEquals(2L, claims.orderId());
+        assertEquals(3L, claims.ebookId());
+        assertEquals(1_700_000_000L, claims.expiresAtEpochSecond());
+    }
+
+    @Test
+    @DisplayName("서명 토큰 검증 실패: 위변조/다른 키/형식 오류는 거절")
+    void verify_Fail_Tampered() {
+        String token = signer.sign(1L, 2L, 3L, 1_700_000_000L);
+        //서명 첫 글자 변경(마지막 글자는 패딩 비트만 바뀔 수 있어 검증이 통과할 수 있음)
+        int sig = token.indexOf('.') + 1;
+        String tampered = token.substring(0, sig) + (token.charAt(sig) == 'A' ? 'B' : 'A') + token.substring(sig + 1);
+
+        assertFalse(signer.verify(tampered).isPresent());
+        assertFalse(new DownloadTokenSigner("other-key-other-key-other-key-other").verify(token).isPresent());
+        assertFalse(signer.verify("ST-garbage").isPresent());
+        assertFalse(signer.verify("DT-ABCDEF").isPresent());
+    }
+
+    @Test
+    @DisplayName("재사용 제한: 같은 nonce는 허용 횟수까지만 통과")
+    void nonceReplayGuard_LimitsUses() {
+        NonceReplayGuard guard = new NonceReplayGuard(2);
+        long expiresAt = Instant.now().getEpochSecond() + 600;
+
+        assertTrue(guard.tryUse("nonce-1", expiresAt));
+        assertTrue(guard.tryUse("nonce-1", expiresAt));
+        assertFalse(guard.tryUse("nonce-1", expiresAt));
+        assertTrue(guard.tryUse("nonce-2", expiresAt));
+    }
+}
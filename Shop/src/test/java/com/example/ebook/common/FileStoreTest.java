@@ -0,0 +1,70 @@
+package com.example.ebook.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FileStoreTest {
+
+	@TempDir
+	Path tempDir;
+
+	private FileStore fileStore;
+
+	@BeforeEach
+	void setUp() {
+		fileStore = new FileStore(new LocalBlobStore(tempDir.toString(), "", new MappedFileCache(false, 0, 0, 1)));
+		ReflectionTestUtils.setField(fileStore, "storagePath", tempDir.toString());
+	}
+
+	@Test
+	@DisplayName("썸네일 업로드: 폭별 JPEG 축소본 생성, 원본보다 크게 늘리지 않음")
+	void storeThumbnail_CreatesVariants() throws Exception {
+		String stored = fileStore.storeThumbnail(new MockMultipartFile("thumbnail", "cover.png", "image/png", png(480, 720)));
+
+		assertThat(dimensions(FileStore.variantName(stored, 160))).containsExactly(160, 240);
+		assertThat(dimensions(FileStore.variantName(stored, 320))).containsExactly(320, 480);
+		assertThat(dimensions(FileStore.variantName(stored, 640))).containsExactly(480, 720);
+		assertThat(FileStore.variantName(stored, 320)).endsWith("_w320.jpg");
+
+		//이미 있으면 다시 만들지 않음
+		assertThat(fileStore.createThumbnailVariants(stored)).isZero();
+		assertThat(fileStore.existingVariantWidths(stored)).isEqualTo("160,320,640");
+	}
+
+	@Test
+	@DisplayName("이미지가 아닌 파일은 축소본 없이 원본만 저장")
+	void storeThumbnail_NotImage_KeepsOriginalOnly() throws Exception {
+		String stored = fileStore.storeThumbnail(new MockMultipartFile("thumbnail", "book.pdf", "application/pdf", "%PDF-1.4".getBytes()));
+
+		assertThat(Files.exists(tempDir.resolve(stored))).isTrue();
+		try(var files = Files.list(tempDir)) {
+			assertThat(files.count()).isEqualTo(1);
+		}
+		assertThat(fileStore.existingVariantWidths(stored)).isNull();	//응답에는 원본만
+	}
+
+	private static byte[] png(int width, int height) throws Exception {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private Integer[] dimensions(String name) throws Exception {
+		BufferedImage image = ImageIO.read(tempDir.resolve(name).toFile());
+		return new Integer[] {image.getWidth(), image.getHeight()};
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.ebook.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+
+class JwtProviderTest {
+
+	private final JwtProvider jwtProvider = new JwtProvider(1000);
+
+	@Test
+	void 같은_토큰은_서명검증_한번만() {
+		String token = jwtProvider.createAccessToken(7L, "USER");
+
+		Claims first = jwtProvider.resolve(token).orElseThrow();
+		Claims second = jwtProvider.resolve(token).orElseThrow();
+
+		assertThat(first.getSubject()).isEqualTo("7");
+		assertThat(second.get("role", String.class)).isEqualTo("USER");
+		assertThat(jwtProvider.stats())
+				.containsEntry("verifications", 1L)
+				.containsEntry("hitCount", 1L);
+	}
+
+	@Test
+	void 변조된_토큰은_무효() {
+		String token = jwtProvider.createAccessToken(7L, "USER");
+		assertThat(jwtProvider.resolve(token)).isPresent();
+
+		//header.payload.signature 중 payload만 ADMIN 권한 토큰의 것으로 바꿔치기(서명은 원래 토큰 것)
+		//-> 원래 토큰이 검증 캐시에 있어도 토큰 문자열이 다르므로 서명 검증을 다시 거쳐 실패해야 함
+		String[] parts = token.split("\\.");
+		String[] admin = jwtProvider.createAccessToken(7L, "ADMIN").split("\\.");
+		assertThat(admin[1]).isNotEqualTo(parts[1]);
+		String tampered = parts[0] + "." + admin[1] + "." + parts[2];
+
+		assertThat(jwtProvider.resolve(tampered)).isEmpty();
+		assertThat(jwtProvider.isValid(null)).isFalse();
+		assertThat(jwtProvider.stats())
+				.containsEntry("verifications", 2L)
+				.containsEntry("verificationFailures", 1L);
+	}
+}
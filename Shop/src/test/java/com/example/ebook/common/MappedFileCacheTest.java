@@ -0,0 +1,77 @@
+package com.example.ebook.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import com.example.ebook.common.BlobStore.BlobInfo;
+
+class MappedFileCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	private MappedFileCache cache;
+	private LocalBlobStore store;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		cache = new MappedFileCache(true, 1024 * 1024, 64 * 1024, 30);
+		store = new LocalBlobStore(tempDir.resolve("uploads").toString(), tempDir.resolve("content").toString(), cache);
+		Files.createDirectories(tempDir.resolve("content/objects"));
+		Files.writeString(tempDir.resolve("content/objects/hot"), "0123456789");
+		Files.write(tempDir.resolve("content/objects/large"), new byte[128 * 1024]);
+	}
+
+	@Test
+	@DisplayName("두 번째 다운로드부터 매핑된 버퍼에서 전송, stat도 파일시스템을 보지 않음")
+	void secondDownload_IsServedFromCache() throws Exception {
+		BlobInfo info = store.stat("objects/hot").orElseThrow();
+		assertThat(read(store.asResource("objects/hot", info), 0)).isEqualTo("0123456789");
+
+		Files.delete(tempDir.resolve("content/objects/hot"));	//매핑은 그대로 유효, stat도 캐시에서
+		BlobInfo cached = store.stat("objects/hot").orElseThrow();
+		assertThat(read(store.asResource("objects/hot", cached), 4)).isEqualTo("456789");
+
+		assertThat(cache.stats())
+				.containsEntry("hitCount", 1L)
+				.containsEntry("missCount", 1L)
+				.containsEntry("bytesServedFromCache", 16L);
+	}
+
+	@Test
+	@DisplayName("한도보다 큰 파일은 매핑하지 않고 일반 파일로")
+	void largeFile_FallsBackToFileSystem() throws Exception {
+		BlobInfo info = store.stat("objects/large").orElseThrow();
+
+		assertThat(store.asResource("objects/large", info)).isInstanceOf(FileSystemResource.class);
+		assertThat(cache.stats()).containsEntry("skippedLargeFiles", 1L);
+	}
+
+	@Test
+	@DisplayName("삭제/경로 변경 시 캐시에서 제거")
+	void invalidate_RemovesMapping() throws Exception {
+		store.asResource("objects/hot", store.stat("objects/hot").orElseThrow());
+
+		store.delete("objects/hot");
+
+		assertThat(store.stat("objects/hot")).isEmpty();
+		assertThat(cache.peek("objects/hot")).isNull();
+	}
+
+	private static String read(Resource resource, long skip) throws Exception {
+		try(InputStream in = resource.getInputStream()) {
+			in.skip(skip);
+			return new String(in.readAllBytes());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.ebook.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * 테스트용 S3 호환 스텁 서버(메모리 저장, path-style: /{bucket}/{key})
+ * -PUT/GET(Range: bytes=n-)/HEAD/DELETE
+ * -서명 값 자체는 검증하지 않고 SigV4 헤더(또는 서명 URL 쿼리)가 있는지만 확인
+ * -GET으로 내려보낸 바이트 수를 기록해서 Range가 앞부분을 받지 않는지 확인
+ */
+public class S3StubServer implements AutoCloseable {
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+	private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+	private final AtomicLong bytesServed = new AtomicLong();
+
+	public S3StubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public String endpoint() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	public Map<String, byte[]> objects() {
+		return objects;
+	}
+
+	public long bytesServed() {
+		return bytesServed.get();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try(InputStream in = exchange.getRequestBody()) {
+			byte[] body = in.readAllBytes();
+			String auth = exchange.getRequestHeaders().getFirst("Authorization");
+			String query = exchange.getRequestURI().getRawQuery();
+			boolean signed = (auth != null && auth.startsWith("AWS4-HMAC-SHA256 Credential="))
+					|| (query != null && query.contains("X-Amz-Signature="));
+			if(!signed) {
+				respond(exchange, 403, new byte[0]);
+				return;
+			}
+
+			String path = exchange.getRequestURI().getPath();
+			switch(exchange.getRequestMethod()) {
+				case "PUT" -> {
+					objects.put(path, body);
+					respond(exchange, 200, new byte[0]);
+				}
+				case "HEAD" -> {
+					byte[] object = objects.get(path);
+					if(object == null) {
+						exchange.sendResponseHeaders(404, -1);
+					} else {
+						exchange.getResponseHeaders().set("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+						exchange.getResponseHeaders().set("Content-Length", Long.toString(object.length));
+						exchange.sendResponseHeaders(200, -1);
+					}
+				}
+				case "GET" -> {
+					byte[] object = objects.get(path);
+					if(object == null) {
+						respond(exchange, 404, "NoSuchKey".getBytes());
+						return;
+					}
+					String range = exchange.getRequestHeaders().getFirst("Range");
+					if(range == null) {
+						respond(exchange, 200, object);
+					} else {
+						int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+						respond(exchange, 206, Arrays.copyOfRange(object, start, object.length));
+					}
+				}
+				case "DELETE" -> {
+					objects.remove(path);
+					respond(exchange, 204, null);
+				}
+				default -> respond(exchange, 405, new byte[0]);
+			}
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+		if(bytes == null) {
+			exchange.sendResponseHeaders(status, -1);
+			exchange.close();
+			return;
+		}
+		if(exchange.getRequestMethod().equals("GET") && status < 300) {
+			bytesServed.addAndGet(bytes.length);
+		}
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		try(OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.ebook.config;
+
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+//빌드 때 만든 .gz를 Accept-Encoding에 맞게 보내는지 + 캐시 헤더(시큐리티 없이 MVC 설정만 띄움)
+class WebCorsConfigTest {
+
+	@Configuration
+	@EnableWebMvc
+	static class MvcOnly {}
+
+	private AnnotationConfigWebApplicationContext context;
+	private MockMvc mockMvc;
+	private String asset;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.register(MvcOnly.class, WebCorsConfig.class);
+		context.refresh();
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+		//Vite 빌드 파일명(해시 포함)은 빌드마다 바뀜
+		Resource[] gz = new PathMatchingResourcePatternResolver().getResources("classpath:/static/assets/*.js.gz");
+		assumeThat(gz).as("precompressed frontend build").isNotEmpty();
+		String name = gz[0].getFilename();
+		asset = "/assets/" + name.substring(0, name.length() - ".gz".length());
+	}
+
+	@AfterEach
+	void tearDown() {
+		context.close();
+	}
+
+	@Test
+	@DisplayName("gzip 지원 클라이언트에는 미리 압축한 파일 + immutable 캐시")
+	void asset_Gzip_Immutable() throws Exception {
+		mockMvc.perform(get(asset).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+	}
+
+	@Test
+	@DisplayName("압축 미지원 클라이언트에는 원본")
+	void asset_NoAcceptEncoding_Identity() throws Exception {
+		mockMvc.perform(get(asset))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	@DisplayName("index.html은 매번 재검증")
+	void indexHtml_NoCache() throws Exception {
+		mockMvc.perform(get("/index.html"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.ebook.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+//업로드 폴더는 썸네일 이미지만 공개, 같은 폴더의 예전 이북 파일은 404
+class WebResourceConfigTest {
+
+	@Configuration
+	@EnableWebMvc
+	static class MvcOnly {}
+
+	@TempDir
+	Path uploads;
+
+	private AnnotationConfigWebApplicationContext context;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Files.writeString(uploads.resolve("cover_w160.jpg"), "jpeg");
+		Files.writeString(uploads.resolve("legacy-uuid.pdf"), "%PDF-1.4");
+
+		context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("test", Map.of("ebook.storage.path", uploads.toString())));
+		context.register(MvcOnly.class, WebResourceConfig.class);
+		context.refresh();
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		context.close();
+	}
+
+	@Test
+	@DisplayName("썸네일은 immutable 캐시로 서빙")
+	void thumbnail_Served() throws Exception {
+		mockMvc.perform(get("/uploads/cover_w160.jpg"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+	}
+
+	@Test
+	@DisplayName("이북 본문은 /uploads로 받을 수 없음")
+	void ebookFile_NotFound() throws Exception {
+		mockMvc.perform(get("/uploads/legacy-uuid.pdf"))
+				.andExpect(status().isNotFound());
+	}
+}
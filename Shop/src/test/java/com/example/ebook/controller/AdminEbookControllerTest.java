@@ -0,0 +1,73 @@
+package com.example.ebook.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.ebook.common.FileStore;
+import com.example.ebook.entity.Ebook;
+import com.example.ebook.service.EbookService;
+import com.example.ebook.service.StoredFileService;
+
+//본문 파일 교체 실패 시 업로드한 파일 참조 정리
+@ExtendWith(MockitoExtension.class)
+class AdminEbookControllerTest {
+
+    @InjectMocks
+    private AdminEbookController adminEbookController;
+
+    @Mock
+    private EbookService ebookService;
+
+    @Mock
+    private FileStore fileStore;
+
+    @Mock
+    private StoredFileService storedFileService;
+
+    @Test
+    @DisplayName("파일 교체 실패: 방금 저장한 파일 참조 해제 후 예외 그대로 전달")
+    void uploadFile_ReplaceFails_ReleasesStoredFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("pdf".getBytes());
+        when(ebookService.getById(1L)).thenReturn(new Ebook("책", "저자", BigDecimal.ONE, "ACTIVE"));
+        when(storedFileService.store(any())).thenReturn("ab/abcd.pdf");
+        ResponseStatusException gone = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ebook not found: id = 1");
+        when(ebookService.replaceFile(1L, "ab/abcd.pdf", "book.pdf")).thenThrow(gone);
+
+        ResponseStatusException thrown = assertThrows(ResponseStatusException.class,
+                () -> adminEbookController.uploadFile(1L, "book.pdf", request));
+
+        assertEquals(gone, thrown);
+        verify(storedFileService).release("ab/abcd.pdf");
+    }
+
+    @Test
+    @DisplayName("없는 이북: 400, 파일은 저장하지 않음")
+    void uploadFile_UnknownEbook_StoresNothing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("pdf".getBytes());
+        when(ebookService.getById(1L)).thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ebook not found: id = 1"));
+
+        ResponseStatusException thrown = assertThrows(ResponseStatusException.class,
+                () -> adminEbookController.uploadFile(1L, "book.pdf", request));
+
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatusCode());
+        verify(storedFileService, never()).store(any());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ebook.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+import com.example.ebook.service.DownloadTokenService;
+import com.example.ebook.service.DownloadTokenService.DownloadFile;
+
+//메모리 회귀 테스트: 힙 최대치보다 큰 파일을 여러 요청이 동시에 받아도 OOM이 나지 않아야 함
+//(build.gradle에서 테스트 JVM 힙을 작게 잡아둠)
+@ExtendWith(MockitoExtension.class)
+class DownloadControllerMemoryTest {
+
+    private static final int PARALLEL_DOWNLOADS = 4;
+
+    @InjectMocks
+    private DownloadController downloadController;
+
+    @Mock
+    private DownloadTokenService downloadTokenService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("대용량 파일 병렬 다운로드: 파일 크기와 무관하게 힙을 쓰지 않고 전부 전송")
+    void download_LargeFileInParallel_DoesNotLoadIntoHeap() throws Exception {
+        //힙 최대치보다 큰 희소 파일 생성(디스크는 거의 안 씀)
+        long size = Runtime.getRuntime().maxMemory() + 32L * 1024 * 1024;
+        Path file = tempDir.resolve("large.pdf");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+        }
+
+        when(downloadTokenService.download("DT-LARGE"))
+                .thenReturn(new DownloadFile("large.pdf", new FileSystemResource(file), size, "\"etag\"", 0L));
+
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLEL_DOWNLOADS);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < PARALLEL_DOWNLOADS; i++) {
+                results.add(pool.submit(() -> writeBody(downloadController.download("DT-LARGE", new HttpHeaders()))));
+            }
+
+            //모든 요청이 파일 전체 바이트를 전송했는지 검증
+            for (Future<Long> result : results) {
+                assertEquals(size, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("다운로드 응답 헤더: ETag와 첨부파일명이 설정")
+    void download_SetsHeaders() throws IOException {
+        Path file = tempDir.resolve("small.pdf");
+        Files.write(file, new byte[] {1, 2, 3});
+
+        when(downloadTokenService.download("DT-SMALL"))
+                .thenReturn(new DownloadFile("small.pdf", new FileSystemResource(file), 3, "\"etag\"", 0L));
+
+        ResponseEntity<Resource> response = downloadController.download("DT-SMALL", new HttpHeaders());
+
+        assertEquals("\"etag\"", response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("small.pdf"));
+    }
+
+    //실제 MVC와 같은 메시지 컨버터로 바디를 쓰되, 출력은 버리고 바이트 수만 셈
+    private long writeBody(ResponseEntity<Resource> response) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        HttpOutputMessage message = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        new ResourceHttpMessageConverter().write(response.getBody(), response.getHeaders().getContentType(), message);
+        return out.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.ebook.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.ebook.service.DownloadTokenService;
+import com.example.ebook.service.DownloadTokenService.DownloadFile;
+
+//Range / If-Range 이어받기 동작 검증
+@ExtendWith(MockitoExtension.class)
+class DownloadControllerRangeTest {
+
+    private static final String ETAG = "\"a-1\"";
+
+    @InjectMocks
+    private DownloadController downloadController;
+
+    @Mock
+    private DownloadTokenService downloadTokenService;
+
+    @TempDir
+    Path tempDir;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = tempDir.resolve("book.pdf");
+        Files.write(file, "0123456789".getBytes());
+
+        when(downloadTokenService.download("DT-1"))
+                .thenReturn(new DownloadFile("book.pdf", new FileSystemResource(file), 10, ETAG, 1000L));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(downloadController).build();
+    }
+
+    @Test
+    @DisplayName("Range 요청: 206과 요청한 구간만 전송")
+    void download_Range_ReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/downloads/DT-1").header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(content().string("456789"));
+    }
+
+    @Test
+    @DisplayName("If-Range 일치: 이어받기 허용")
+    void download_IfRangeMatches_ReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/downloads/DT-1")
+                        .header(HttpHeaders.RANGE, "bytes=0-1")
+                        .header(HttpHeaders.IF_RANGE, ETAG))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("01"));
+    }
+
+    @Test
+    @DisplayName("If-Range 불일치: 파일이 바뀌었으므로 전체를 200으로 재전송")
+    void download_IfRangeMismatch_ReturnsFullContent() throws Exception {
+        mockMvc.perform(get("/downloads/DT-1")
+                        .header(HttpHeaders.RANGE, "bytes=4-")
+                        .header(HttpHeaders.IF_RANGE, "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    @DisplayName("범위 밖 Range: 416")
+    void download_UnsatisfiableRange_Returns416() throws Exception {
+        mockMvc.perform(get("/downloads/DT-1").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ebook.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OrderExportReaderTest {
+
+	@Test
+	@DisplayName("MySQL에서 useCursorFetch가 없으면 스트리밍 모드(Integer.MIN_VALUE)")
+	void mysqlWithoutCursorFetch_Streams() {
+		assertThat(OrderExportReader.effectiveFetchSize(1000, "MySQL", "jdbc:mysql://db:3306/ebook?serverTimezone=UTC"))
+				.isEqualTo(Integer.MIN_VALUE);
+		assertThat(OrderExportReader.effectiveFetchSize(1000, "MySQL", "jdbc:mysql://db:3306/ebook?useCursorFetch=true"))
+				.isEqualTo(1000);
+		assertThat(OrderExportReader.effectiveFetchSize(1000, "H2", "jdbc:h2:mem:test"))
+				.isEqualTo(1000);
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.ebook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.ebook.domain.OrderExportReader;
+import com.example.ebook.dto.OrderDetail;
+import com.example.ebook.dto.PageResponse;
+
+@DataJpaTest(showSql = false, properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"ebook.admin.export-fetch-size=2"
+})
+@Import({AdminOrderService.class, OrderExportReader.class, JacksonAutoConfiguration.class})
+class AdminOrderServiceTest {
+
+	@Autowired
+	private AdminOrderService adminOrderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() {
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.update("insert into ebook (title, author, price, status, category, created_at, updated_at) values ('책', '저자', 1000, 'ACTIVE', 'IT', ?, ?)",
+				now, now);
+		Long ebookId = jdbcTemplate.queryForObject("select id from ebook", Long.class);
+
+		//1번 주문: 아이템 2개(제목에 쉼표/따옴표), 2번 주문: 아이템 없음, 3번 주문: 다른 상태
+		String insertOrder = "insert into orders (user_id, order_number, status, total_amount, final_amount, created_at) values (?, ?, ?, 2000, 2000, ?)";
+		jdbcTemplate.update(insertOrder, 1L, "ORD-1", "PAID", now);
+		jdbcTemplate.update(insertOrder, 2L, "ORD-2", "PAID", now);
+		jdbcTemplate.update(insertOrder, 1L, "ORD-3", "PENDING", now);
+		Long firstOrderId = jdbcTemplate.queryForObject("select id from orders where order_number = 'ORD-1'", Long.class);
+
+		String insertItem = "insert into order_item (order_id, ebook_id, title_snap, price_snap, quantity, sub_total) values (?, ?, ?, ?, 1, ?)";
+		jdbcTemplate.update(insertItem, firstOrderId, ebookId, "자바, \"입문\"", BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+		jdbcTemplate.update(insertItem, firstOrderId, ebookId, "스프링", BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	void exportCsv_oneRowPerItem_and_escapesQuotes() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long rows = adminOrderService.exportCsv("PAID", null, null, out);
+
+		String csv = out.toString(StandardCharsets.UTF_8);
+		assertThat(rows).isEqualTo(3);  //1번 주문 아이템 2줄 + 아이템 없는 2번 주문 1줄
+		assertThat(csv).startsWith("\uFEFForderId,");
+		assertThat(csv.split("\n")).hasSize(4);
+		assertThat(csv).contains("\"자바, \"\"입문\"\"\"");
+		assertThat(csv).doesNotContain("ORD-3");
+	}
+
+	@Test
+	void csv_prefixesFormulaLikeText() {
+		assertThat(AdminOrderService.csv("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+		assertThat(AdminOrderService.csv("+1")).isEqualTo("'+1");
+		assertThat(AdminOrderService.csv("-1")).isEqualTo("'-1");
+		assertThat(AdminOrderService.csv("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+		assertThat(AdminOrderService.csv(BigDecimal.valueOf(-1000))).isEqualTo("-1000");	//금액은 숫자 그대로
+		assertThat(AdminOrderService.csv("ORD-1")).isEqualTo("ORD-1");
+	}
+
+	@Test
+	void exportNdjson_groupsItemsPerOrder() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		long orders = adminOrderService.exportNdjson(null, null, null, out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(orders).isEqualTo(3);
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).contains("\"orderNumber\":\"ORD-1\"").contains("스프링");
+		assertThat(lines[1]).contains("\"orderNumber\":\"ORD-2\"").contains("\"items\":[]");
+	}
+
+	@Test
+	void searchOrders_filtersAndLoadsItems() {
+		PageResponse<OrderDetail> page = adminOrderService.searchOrders("PAID", 1L, 0, 10);
+
+		assertThat(page.total).isEqualTo(1);
+		assertThat(page.items).singleElement()
+				.satisfies(detail -> assertThat(detail.items).hasSize(2));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void recentOrders_limitedToNewest() {
+		List<OrderDetail> recent = adminOrderService.getRecentOrdersForAdmin(2);
+
+		assertThat(recent).extracting(detail -> detail.orderNumber).containsExactly("ORD-3", "ORD-2");
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.ebook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@DataJpaTest(showSql = false, properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"ebook.download.purge-batch-size=3",
+		"ebook.download.purge-pause-ms=0",
+		"ebook.download.purge-retention-hours=1"
+})
+@Import(DownloadTokenPurger.class)
+class DownloadTokenPurgerTest {
+
+	@Autowired
+	private DownloadTokenPurger purger;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void 보관시간_지난_만료토큰만_구간별로_삭제() {
+		LocalDateTime now = LocalDateTime.now();
+		List<Object[]> rows = new ArrayList<>();
+		for(int i = 0; i < 10; i++) {
+			//짝수: 하루 전 만료(삭제 대상), 홀수: 아직 유효
+			LocalDateTime expiresAt = i % 2 == 0 ? now.minusDays(1) : now.plusMinutes(10);
+			rows.add(new Object[] {1L, 1L, "DT-" + i, Timestamp.valueOf(expiresAt), Timestamp.valueOf(now)});
+		}
+		//방금 만료(보관 시간 안) -> 남아야 함
+		rows.add(new Object[] {1L, 1L, "DT-recent", Timestamp.valueOf(now.minusMinutes(5)), Timestamp.valueOf(now)});
+		jdbcTemplate.batchUpdate(
+				"insert into download_token (user_id, ebook_id, token, expires_at, created_at) values (?, ?, ?, ?, ?)", rows);
+
+		DownloadTokenPurger.PurgeResult result = purger.purge();
+
+		assertThat(result.purged()).isEqualTo(5);
+		assertThat(result.chunks()).isEqualTo(4);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from download_token", Integer.class)).isEqualTo(6);
+		assertThat(purger.stats()).containsEntry("totalPurged", 5L);
+	}
+}
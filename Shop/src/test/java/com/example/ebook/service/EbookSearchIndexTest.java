@@ -0,0 +1,84 @@
+package com.example.ebook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.domain.EbookRepository.EbookIndexRow;
+import com.example.ebook.entity.Ebook;
+
+class EbookSearchIndexTest {
+
+	private EbookRepository ebookRepository;
+	private EbookSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		ebookRepository = mock(EbookRepository.class);
+		when(ebookRepository.findIndexRowsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+				row(1L, "자바의 정석", "남궁성", "IT", "ACTIVE"),
+				row(2L, "토비의 스프링", "이일민", "IT", "ACTIVE"),
+				row(3L, "스프링 부트 실전", "김자바", "IT", "ACTIVE"),
+				row(4L, "채식주의자", "한강", "NOVEL", "ACTIVE"),
+				row(5L, "자바 숨김 책", "저자", "IT", "INACTIVE")));
+		when(ebookRepository.findIndexRowsAfter(eq(5L), any(Pageable.class))).thenReturn(List.of());
+		index = new EbookSearchIndex(ebookRepository);
+		index.rebuild();
+	}
+
+	@Test
+	void 한글_부분검색_관련도순() {
+		//제목 포함(1) > 저자 포함(3), INACTIVE(5)는 제외
+		EbookSearchIndex.SearchResult result = index.search(null, "자바", 0, 10);
+		assertThat(result.ids()).containsExactly(1L, 3L);
+		assertThat(result.total()).isEqualTo(2);
+
+		//띄어쓰기 없는 부분 문자열
+		assertThat(index.search("ALL", "주의", 0, 10).ids()).containsExactly(4L);
+	}
+
+	@Test
+	void 여러_토큰은_모두_포함해야_함() {
+		assertThat(index.search(null, "스프링 부트", 0, 10).ids()).containsExactly(3L);
+		assertThat(index.search(null, "스프링", 0, 10).ids()).containsExactly(3L, 2L);
+		assertThat(index.search("NOVEL", "스프링", 0, 10).ids()).isEmpty();
+	}
+
+	@Test
+	void 증분_갱신() {
+		Ebook e = new Ebook();
+		e.setId(6L);
+		e.setTitle("자바 ORM 표준 JPA");
+		e.setAuthor("김영한");
+		e.setCategory("IT");
+		e.setStatus("ACTIVE");
+		index.upsert(e);
+		assertThat(index.search(null, "jpa", 0, 10).ids()).containsExactly(6L);
+
+		e.setTitle("JPA 프로그래밍");
+		index.upsert(e);
+		assertThat(index.search(null, "표준", 0, 10).ids()).isEmpty();
+
+		index.remove(6L);
+		assertThat(index.search(null, "jpa", 0, 10).ids()).isEmpty();
+	}
+
+	private static EbookIndexRow row(Long id, String title, String author, String category, String status) {
+		return new EbookIndexRow() {
+			public Long getId() { return id; }
+			public String getTitle() { return title; }
+			public String getAuthor() { return author; }
+			public String getCategory() { return category; }
+			public String getStatus() { return status; }
+		};
+	}
+}
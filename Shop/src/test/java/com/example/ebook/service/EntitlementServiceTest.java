@@ -0,0 +1,168 @@
+package com.example.ebook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ebook.domain.EntitlementGrantWriter;
+import com.example.ebook.domain.OrderItemBatchWriter;
+import com.example.ebook.dto.LibraryItem;
+
+//이용권 INSERT ... SELECT(네이티브 쿼리) + 커밋 후 캐시 무효화 검증
+//테스트 트랜잭션을 끄고 서비스 메서드마다 커밋되게 함(데이터는 매번 지우고 시작)
+@DataJpaTest(showSql = false, properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({EntitlementService.class, EntitlementGrantWriter.class, OrderService.class, OrderItemBatchWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntitlementServiceTest {
+
+	private static final long USER_ID = 7L;
+
+	@Autowired
+	private EntitlementService entitlementService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private long bookA;
+	private long bookB;
+
+	@BeforeEach
+	void seed() {
+		for(String table : new String[] {"entitlement", "order_item", "orders", "ebook"}) {
+			jdbcTemplate.update("delete from " + table);
+		}
+		Timestamp now = Timestamp.from(Instant.now());
+		for(String title : new String[] {"A", "B"}) {
+			jdbcTemplate.update("insert into ebook (title, author, price, status, category, created_at, updated_at) values (?, '저자', 1000, 'ACTIVE', 'IT', ?, ?)",
+					title, now, now);
+		}
+		bookA = jdbcTemplate.queryForObject("select id from ebook where title = 'A'", Long.class);
+		bookB = jdbcTemplate.queryForObject("select id from ebook where title = 'B'", Long.class);
+	}
+
+	@Test
+	void 결제시_추가_환불시_삭제_다른주문으로_가진책은_유지() {
+		long first = order("ORD-1", "PAID", bookA, bookB);
+		long second = order("ORD-2", "PAID", bookA);
+
+		entitlementService.grantForOrder(USER_ID, first);
+		entitlementService.grantForOrder(USER_ID, second);	//A는 이미 있으므로 건너뜀
+		assertThat(entitlementService.ownedEbookIds(USER_ID)).containsExactlyInAnyOrder(bookA, bookB);
+		assertThat(entitlementService.grantingOrderId(USER_ID, bookA)).contains(first);
+
+		//내 서재: 이북 정보 사본 포함, 전체 수는 캐시에서
+		var library = entitlementService.library(USER_ID, 0, 10);
+		assertThat(library.total).isEqualTo(2);
+		assertThat(library.items).extracting(LibraryItem::title).containsExactlyInAnyOrder("A", "B");
+
+		//첫 주문 환불: B는 사라지고 A는 두 번째 주문으로 유지
+		jdbcTemplate.update("update orders set status = 'CANCELLED' where id = ?", first);
+		entitlementService.revokeForOrder(USER_ID, first);
+		assertThat(entitlementService.owns(USER_ID, bookB)).isFalse();
+		assertThat(entitlementService.grantingOrderId(USER_ID, bookA)).contains(second);
+	}
+
+	//같은 책을 담은 PENDING 주문 두 건이 동시에 결제 완료: 늦은 쪽도 PAID로 커밋되고 이용권은 먼저 커밋된 주문 것 하나
+	@Test
+	void 같은책_두주문_동시결제완료_둘다_PAID() throws Exception {
+		long first = order("ORD-1", "PENDING", bookA);
+		long second = order("ORD-2", "PENDING", bookA, bookB);
+
+		CountDownLatch granted = new CountDownLatch(1);
+		CountDownLatch secondStarted = new CountDownLatch(1);
+		CompletableFuture<Void> firstConfirm = CompletableFuture.runAsync(() ->
+				new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+					orderService.markPaid(USER_ID, first);
+					granted.countDown();
+					await(secondStarted);
+					sleep(300);	//두 번째 INSERT가 유니크 인덱스에서 기다리는 동안 커밋
+				}));
+
+		assertThat(granted.await(5, TimeUnit.SECONDS)).isTrue();	//첫 주문의 이용권 행이 커밋 전 상태
+		secondStarted.countDown();
+		orderService.markPaid(USER_ID, second);
+		firstConfirm.get(5, TimeUnit.SECONDS);
+
+		assertThat(jdbcTemplate.queryForList("select status from orders order by id", String.class))
+				.containsExactly("PAID", "PAID");
+		assertThat(entitlementService.grantingOrderId(USER_ID, bookA)).contains(first);
+		assertThat(entitlementService.grantingOrderId(USER_ID, bookB)).contains(second);
+	}
+
+	//다른 서버에서 결제 완료(이 서버 캐시는 무효화되지 않음) -> 캐시에 없으면 DB를 확인
+	@Test
+	void 캐시에_없는_책은_DB를_확인() {
+		long first = order("ORD-1", "PAID", bookA);
+		entitlementService.grantForOrder(USER_ID, first);
+		assertThat(entitlementService.owns(USER_ID, bookB)).isFalse();	//캐시 적재
+
+		long second = order("ORD-2", "PAID", bookB);
+		jdbcTemplate.update("insert into entitlement (user_id, ebook_id, order_id, granted_at) values (?, ?, ?, ?)",
+				USER_ID, bookB, second, Timestamp.from(Instant.now()));
+
+		assertThat(entitlementService.grantingOrderId(USER_ID, bookB)).contains(second);
+		assertThat(entitlementService.ownedEbookIds(USER_ID)).containsExactlyInAnyOrder(bookA, bookB);
+	}
+
+	@Test
+	void 백필은_PAID만_한번씩() {
+		order("ORD-1", "PAID", bookA);
+		order("ORD-2", "PENDING", bookB);
+
+		assertThat(entitlementService.backfill()).isEqualTo(1);
+		assertThat(entitlementService.backfill()).isZero();
+		assertThat(entitlementService.ownedEbookIds(USER_ID)).containsExactly(bookA);
+	}
+
+	private long order(String number, String status, long... ebookIds) {
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.update("insert into orders (user_id, order_number, status, total_amount, final_amount, created_at) values (?, ?, ?, 0, 0, ?)",
+				USER_ID, number, status, now);
+		long orderId = jdbcTemplate.queryForObject("select id from orders where order_number = ?", Long.class, number);
+		for(long ebookId : ebookIds) {
+			jdbcTemplate.update("insert into order_item (order_id, ebook_id, title_snap, price_snap, quantity, sub_total) values (?, ?, 't', 1000, 1, 1000)",
+					orderId, ebookId);
+		}
+		return orderId;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
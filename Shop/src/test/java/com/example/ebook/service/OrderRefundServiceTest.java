@@ -3,29 +3,37 @@ package com.example.ebook.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.net.http.HttpTimeoutException;
 import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.example.ebook.client.TossPaymentClient;
+import com.example.ebook.client.TossPaymentException;
+import com.example.ebook.common.DownloadRevocations;
 import com.example.ebook.domain.DownloadTokenRepository;
 import com.example.ebook.domain.OrderRepository;
-import com.example.ebook.entity.DownloadToken;
+import com.example.ebook.domain.RefundRequestRepository;
 import com.example.ebook.entity.Order;
+import com.example.ebook.entity.RefundRequest;
 
 //스프링 컨테이너를 띄우지 않고 가짜 객체(Mock)만 사용해서 빠르게 테스트
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +51,18 @@ class OrderRefundServiceTest {
     @Mock
     private TossPaymentClient tossPaymentClient;
 
+    @Mock
+    private RefundRequestRepository refundRequestRepository;
+
+    @Mock
+    private DownloadRevocations downloadRevocations;
+
+    @Mock
+    private EntitlementService entitlementService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Test
     @DisplayName("결제 취소 성공: 주문 상태가 CANCELLED로 변경되고 토큰이 만료")
     void cancelAndRefundOrder_Success() {
@@ -50,21 +70,15 @@ class OrderRefundServiceTest {
         Order order = Order.builder()
                     .id(orderId)
                     .orderNumber("ORD-1234")
+                    .paymentKey("pk_1234")
                     .status("PAID")
                     .build();
 
-        DownloadToken token = new DownloadToken();
-
-        ReflectionTestUtils.setField(token, "orderId", orderId);
-
-        when(tokenRepository.findByOrderId(orderId)).thenReturn(List.of(token));
-        
         //레포지토리와 외부 클라이언트가 어떻게 행동할지
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        when(tokenRepository.findByOrderId(orderId)).thenReturn(List.of(token));
 
         //토스 API 호출은 실제로 하지 않고 "성공했다 치고 아무거도 하지마라" 라고 설정
-        doNothing().when(tossPaymentClient).cancelPayment(anyString(), anyString());
+        doNothing().when(tossPaymentClient).cancelPayment(anyString(), anyString(), anyString());
 
         //when (실행)
         orderRefundService.cancelAndRefundOrder(orderId, "단순변심");
@@ -74,7 +88,51 @@ class OrderRefundServiceTest {
         assertNotNull(order.getCanceledAt(), "취소 시간이 기록되어야 합니다.");
 
         // 토스 API 취소 메서드가 정확히 1번 호출되었는지 검증
-        verify(tossPaymentClient, times(1)).cancelPayment("ORD-1234", "단순변심");
+        verify(tossPaymentClient, times(1)).cancelPayment("ORD-1234", "pk_1234", "단순변심");
+
+        //토큰은 건별 로딩 없이 UPDATE 한 번으로 만료 + 메모리 목록에 등록
+        verify(tokenRepository, times(1)).expireAllByOrderId(eq(orderId), any());
+        verify(tokenRepository, never()).findByOrderId(any());
+        verify(downloadRevocations).revokeOrder(orderId);
+        verify(entitlementService).revokeForOrder(order.getUserId(), orderId);
+    }
+
+    @Test
+    @DisplayName("취소 응답 타임아웃 후 재시도에서 '이미 취소됨'이면 취소 확정(PAID로 되돌리지 않음)")
+    void cancel_TimeoutThenAlreadyCanceled_Completes() {
+        Long orderId = 3L;
+        Order order = Order.builder()
+                .id(orderId)
+                .orderNumber("ORD-3")
+                .paymentKey("pk_3")
+                .status("PAID")
+                .build();
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+
+        //1차: 토스에서는 취소됐지만 응답을 못 받음(-1) -> 재시도 예약
+        doThrow(new TossPaymentException("timeout", new HttpTimeoutException("request timed out")))
+                .doThrow(new TossPaymentException(400, TossPaymentException.ALREADY_CANCELED, "이미 취소된 결제 입니다."))
+                .when(tossPaymentClient).cancelPayment("ORD-3", "pk_3", "단순변심");
+
+        assertThrows(TossPaymentException.class, () -> orderRefundService.cancelAndRefundOrder(orderId, "단순변심"));
+        assertEquals("REFUND_REQUESTED", order.getStatus());
+
+        ArgumentCaptor<RefundRequest> saved = ArgumentCaptor.forClass(RefundRequest.class);
+        verify(refundRequestRepository).save(saved.capture());
+        verify(refundRequestRepository).markAttemptFailed(any(), eq("PENDING"), any(), any());
+
+        //2차(스케줄 재시도): ALREADY_CANCELED_PAYMENT -> 성공으로 확정
+        when(refundRequestRepository.findByStatusAndNextAttemptAtBeforeOrderByIdAsc(eq("PENDING"), any(), any()))
+                .thenReturn(List.of(saved.getValue()));
+        when(refundRequestRepository.claim(any(), any(), any())).thenReturn(1);
+
+        orderRefundService.retryPending();
+
+        assertEquals("CANCELLED", order.getStatus());
+        verify(refundRequestRepository).markDone(any());
+        verify(refundRequestRepository, never()).markAttemptFailed(any(), eq("FAILED"), any(), any());
+        verify(tokenRepository).expireAllByOrderId(eq(orderId), any());
+        verify(entitlementService).revokeForOrder(order.getUserId(), orderId);
     }
 
     @Test
@@ -96,6 +154,6 @@ class OrderRefundServiceTest {
         assertEquals("결제 완료 상태의 주문만 취소할 수 있습니다.", exception.getMessage());
 
         //핵심 검증: 예외가 터졌으니 외부 토스 API는 절대 호출되지 말아야함
-        verify(tossPaymentClient, never()).cancelPayment(anyString(), anyString());
+        verify(tossPaymentClient, never()).cancelPayment(any(), any(), any());
     }
 }
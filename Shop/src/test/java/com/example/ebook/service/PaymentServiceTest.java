@@ -0,0 +1,151 @@
+package com.example.ebook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.ebook.client.TossPaymentClient;
+import com.example.ebook.client.TossPaymentException;
+import com.example.ebook.domain.OrderRepository;
+import com.example.ebook.entity.Order;
+
+class PaymentServiceTest {
+
+	private TossPaymentClient tossPaymentClient;
+	private OrderRepository orderRepository;
+	private EntitlementService entitlementService;
+	private PaymentService paymentService;
+	private Order order;
+
+	@BeforeEach
+	void setUp() {
+		tossPaymentClient = mock(TossPaymentClient.class);
+		orderRepository = mock(OrderRepository.class);
+		entitlementService = mock(EntitlementService.class);
+		paymentService = new PaymentService(tossPaymentClient, orderRepository, entitlementService, mock(PlatformTransactionManager.class), 600, 2);
+
+		order = Order.builder().id(1L).orderNumber("ORD-1").status("PENDING").build();
+		when(orderRepository.findByOrderNumber("ORD-1")).thenReturn(Optional.of(order));
+	}
+
+	@Test
+	void 동시_중복_요청은_한번만_호출하고_결과는_캐시() {
+		CompletableFuture<Map<String, Object>> toss = new CompletableFuture<>();
+		when(tossPaymentClient.confirmPaymentAsync("pk", "ORD-1", 1000L)).thenReturn(toss);
+
+		CompletableFuture<PaymentService.ConfirmResult> first = paymentService.confirm("pk", "ORD-1", 1000L);
+		CompletableFuture<PaymentService.ConfirmResult> second = paymentService.confirm("pk", "ORD-1", 1000L);
+		assertThat(second).isSameAs(first);
+
+		toss.complete(Map.of("paymentKey", "pk", "status", "DONE", "method", "카드", "totalAmount", 1000));
+		assertThat(first.join().paid()).isTrue();
+		assertThat(order.getStatus()).isEqualTo("PAID");
+		assertThat(order.getPaidAt()).isNotNull();
+		assertThat(order.getPaymentKey()).isEqualTo("pk");
+		assertThat(order.getPaymentMethod()).isEqualTo("카드");
+		assertThat(order.getApprovedAmount()).isEqualByComparingTo("1000");
+		verify(entitlementService, times(1)).grantForOrder(order.getUserId(), 1L);
+
+		//완료 후 재시도는 캐시에서 응답
+		assertThat(paymentService.confirm("pk", "ORD-1", 1000L).join().paid()).isTrue();
+		verify(tossPaymentClient, times(1)).confirmPaymentAsync(anyString(), anyString(), anyLong());
+		assertThat(paymentService.stats()).containsEntry("coalesced", 1L).containsEntry("cachedHits", 1L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		paymentService.stopExecutor();
+	}
+
+	@Test
+	void 주문_반영은_토스_응답_스레드가_아닌_결제_작업_스레드에서() {
+		CompletableFuture<Map<String, Object>> toss = new CompletableFuture<>();
+		when(tossPaymentClient.confirmPaymentAsync("pk", "ORD-1", 1000L)).thenReturn(toss);
+		AtomicReference<Thread> markPaidThread = new AtomicReference<>();
+		when(orderRepository.findByOrderNumber("ORD-1")).thenAnswer(inv -> {
+			markPaidThread.set(Thread.currentThread());
+			return Optional.of(order);
+		});
+
+		CompletableFuture<PaymentService.ConfirmResult> result = paymentService.confirm("pk", "ORD-1", 1000L);
+		toss.complete(Map.of("paymentKey", "pk", "status", "DONE"));	//응답 스레드 역할 = 테스트 스레드
+
+		assertThat(result.join().paid()).isTrue();
+		assertThat(markPaidThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+	}
+
+	@Test
+	void 통신_오류는_캐시하지_않음() {
+		when(tossPaymentClient.confirmPaymentAsync("pk", "ORD-1", 1000L))
+				.thenReturn(CompletableFuture.failedFuture(new TossPaymentException("timeout", null)))
+				.thenReturn(CompletableFuture.completedFuture(Map.of("status", "DONE")));
+
+		PaymentService.ConfirmResult failed = paymentService.confirm("pk", "ORD-1", 1000L).join();
+		assertThat(failed.paid()).isFalse();
+		assertThat(failed.retryable()).isTrue();
+
+		assertThat(paymentService.confirm("pk", "ORD-1", 1000L).join().paid()).isTrue();
+		verify(tossPaymentClient, times(2)).confirmPaymentAsync(anyString(), anyString(), anyLong());
+	}
+
+	@Test
+	void 토스_승인후_주문반영_실패면_토스_재호출없이_반영만_재시도() {
+		when(tossPaymentClient.confirmPaymentAsync("pk", "ORD-1", 1000L))
+				.thenReturn(CompletableFuture.completedFuture(Map.of("paymentKey", "pk", "status", "DONE")));
+		when(orderRepository.findByOrderNumber("ORD-1"))
+				.thenThrow(new RuntimeException("lock timeout"))
+				.thenReturn(Optional.of(order));
+
+		PaymentService.ConfirmResult failed = paymentService.confirm("pk", "ORD-1", 1000L).join();
+		assertThat(failed.paid()).isFalse();
+		assertThat(failed.retryable()).isTrue();
+		assertThat(order.getStatus()).isEqualTo("PENDING");
+
+		PaymentService.ConfirmResult retried = paymentService.confirm("pk", "ORD-1", 1000L).join();
+		assertThat(retried.paid()).isTrue();
+		assertThat(order.getStatus()).isEqualTo("PAID");
+		assertThat(order.getPaymentKey()).isEqualTo("pk");
+		verify(tossPaymentClient, times(1)).confirmPaymentAsync(anyString(), anyString(), anyLong());
+	}
+
+	@Test
+	void 이미_처리된_결제는_조회로_확인후_PAID() {
+		when(tossPaymentClient.confirmPaymentAsync("pk", "ORD-1", 1000L))
+				.thenReturn(CompletableFuture.failedFuture(
+						new TossPaymentException(400, TossPaymentException.ALREADY_PROCESSED, "이미 처리된 결제 입니다.")));
+		when(tossPaymentClient.getPaymentAsync("pk"))
+				.thenReturn(CompletableFuture.completedFuture(Map.of("paymentKey", "pk", "orderId", "ORD-1", "status", "DONE")));
+
+		assertThat(paymentService.confirm("pk", "ORD-1", 1000L).join().paid()).isTrue();
+		assertThat(order.getStatus()).isEqualTo("PAID");
+		verify(entitlementService, times(1)).grantForOrder(order.getUserId(), 1L);
+	}
+
+	@Test
+	void 이미_처리된_결제라도_다른_주문이면_실패() {
+		when(tossPaymentClient.confirmPaymentAsync("pk", "ORD-1", 1000L))
+				.thenReturn(CompletableFuture.failedFuture(
+						new TossPaymentException(400, TossPaymentException.ALREADY_PROCESSED, "이미 처리된 결제 입니다.")));
+		when(tossPaymentClient.getPaymentAsync("pk"))
+				.thenReturn(CompletableFuture.completedFuture(Map.of("paymentKey", "pk", "orderId", "ORD-2", "status", "DONE")));
+
+		PaymentService.ConfirmResult result = paymentService.confirm("pk", "ORD-1", 1000L).join();
+		assertThat(result.paid()).isFalse();
+		assertThat(result.retryable()).isFalse();
+		assertThat(order.getStatus()).isEqualTo("PENDING");
+	}
+}
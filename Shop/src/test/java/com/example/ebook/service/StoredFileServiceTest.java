@@ -0,0 +1,165 @@
+package com.example.ebook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ebook.common.FileStore;
+import com.example.ebook.common.LocalBlobStore;
+import com.example.ebook.common.MappedFileCache;
+import com.example.ebook.domain.EbookRepository;
+import com.example.ebook.domain.EntitlementGrantWriter;
+import com.example.ebook.domain.StoredFileRepository;
+import com.example.ebook.entity.Ebook;
+
+//같은 내용 업로드는 파일 하나 + 참조 수, 마지막 참조 해제 시 파일 삭제
+@DataJpaTest(showSql = false, properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({StoredFileService.class, FileStore.class, LocalBlobStore.class, MappedFileCache.class,
+		EbookService.class, EbookCatalogCache.class, EbookSearchIndex.class, EbookCountCache.class,
+		EntitlementService.class, EntitlementGrantWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StoredFileServiceTest {
+
+	@TempDir
+	static Path uploads;
+
+	@TempDir
+	static Path storage;
+
+	//본문은 /uploads로 서빙되는 폴더 밖에 저장
+	@DynamicPropertySource
+	static void storagePath(DynamicPropertyRegistry registry) {
+		registry.add("ebook.storage.path", uploads::toString);
+		registry.add("ebook.storage.content-path", storage::toString);
+	}
+
+	@Autowired
+	private StoredFileService storedFileService;
+
+	@Autowired
+	private StoredFileRepository storedFileRepository;
+
+	@Autowired
+	private EbookService ebookService;
+
+	@Autowired
+	private EbookRepository ebookRepository;
+
+	@BeforeEach
+	void clean() {
+		ebookRepository.deleteAll();
+		storedFileRepository.deleteAll();
+	}
+
+	@Test
+	void 같은내용은_한번만_저장하고_마지막참조해제시_삭제() throws Exception {
+		String first = storedFileService.store(stream("same pdf bytes"));
+		String second = storedFileService.store(stream("same pdf bytes"));
+		String other = storedFileService.store(stream("other pdf bytes"));
+
+		assertThat(second).isEqualTo(first);
+		assertThat(other).isNotEqualTo(first);
+		assertThat(first).matches("objects/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}");
+		assertThat(storage.resolve(first)).hasContent("same pdf bytes");
+		assertThat(storedFileRepository.findByPath(first)).get()
+				.satisfies(f -> assertThat(f.getRefCount()).isEqualTo(2));
+
+		storedFileService.release(first);
+		assertThat(Files.exists(storage.resolve(first))).isTrue();	//아직 참조 하나 남음
+
+		storedFileService.release(first);
+		assertThat(Files.exists(storage.resolve(first))).isFalse();
+		assertThat(storedFileRepository.findByPath(first)).isEmpty();
+		assertThat(Files.exists(storage.resolve(other))).isTrue();
+		try(var files = Files.list(uploads)) {
+			assertThat(files).isEmpty();	//objects/, tmp/ 모두 공개 폴더에 없음
+		}
+	}
+
+	//같은 내용을 동시에 올려도 행 하나 + 참조 수는 올린 횟수(중복 INSERT는 재시도로 참조 +1)
+	@Test
+	void 같은내용_동시업로드는_행하나() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> paths = new ArrayList<>();
+			for(int i = 0; i < 16; i++) {
+				paths.add(pool.submit(() -> storedFileService.store(stream("concurrent pdf"))));
+			}
+			String path = paths.get(0).get(10, TimeUnit.SECONDS);
+			for(Future<String> f : paths) {
+				assertThat(f.get(10, TimeUnit.SECONDS)).isEqualTo(path);
+			}
+			assertThat(storedFileRepository.findByPath(path)).get()
+					.satisfies(f -> assertThat(f.getRefCount()).isEqualTo(16));
+			assertThat(storage.resolve(path)).hasContent("concurrent pdf");
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	//행은 있는데 저장소에 파일이 없으면(다른 서버가 지운 직후 등) 참조를 늘리면서 다시 올림
+	@Test
+	void 행이_있어도_파일이_없으면_다시_올림() throws Exception {
+		String path = storedFileService.store(stream("re-upload pdf"));
+		Files.delete(storage.resolve(path));
+
+		assertThat(storedFileService.store(stream("re-upload pdf"))).isEqualTo(path);
+		assertThat(storage.resolve(path)).hasContent("re-upload pdf");
+		assertThat(storedFileRepository.findByPath(path)).get()
+				.satisfies(f -> assertThat(f.getRefCount()).isEqualTo(2));
+	}
+
+	//release는 이북 트랜잭션 커밋 후에 실행됨: 이북 삭제/파일 교체를 거쳐 참조 해제 확인
+	@Test
+	void 이북_파일교체와_삭제는_커밋후_참조해제() {
+		String first = storedFileService.store(stream("first pdf"));
+		String second = storedFileService.store(stream("second pdf"));
+		Ebook ebook = ebookService.create("책", "저자", BigDecimal.valueOf(1000), "ACTIVE", "IT", null, first, "a.pdf");
+
+		ebookService.replaceFile(ebook.getId(), second, "b.pdf");
+		assertThat(storedFileRepository.findByPath(first)).isEmpty();
+		assertThat(Files.exists(storage.resolve(first))).isFalse();
+
+		ebookService.delete(ebook.getId());
+		assertThat(storedFileRepository.findByPath(second)).isEmpty();
+		assertThat(Files.exists(storage.resolve(second))).isFalse();
+		assertThat(ebookRepository.findById(ebook.getId())).isEmpty();
+	}
+
+	@Test
+	void 이전방식_파일은_해제해도_남김() throws Exception {
+		Files.writeString(uploads.resolve("legacy-uuid.pdf"), "old");
+
+		storedFileService.release("legacy-uuid.pdf");
+
+		assertThat(Files.exists(uploads.resolve("legacy-uuid.pdf"))).isTrue();
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}